@@ -0,0 +1,87 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.dto.booking.BookingResponseDto;
+import ru.practicum.server.booking.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookingServiceImpl.createBooking: пропускная способность при конкуренции потоков.
+ * <p>
+ * createBooking - каждый поток бронирует свою вещь (блокировки допуска не пересекаются),
+ * createBookingSameItem - все потоки бронируют одну вещь (допуск сериализуется).
+ * Зависимость от числа потоков снимается запусками с разным -t, например
+ * {@code -Djmh.args="BookingServiceBenchmark -p items=1000 -t 8"} для 1, 2, 4, 8 потоков.
+ * Слоты бронирований идут подряд с 2100 года и не пересекаются с данными набора.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @State(Scope.Benchmark)
+    public static class HotItem {
+        private final AtomicLong slots = new AtomicLong();
+        private final AtomicInteger threads = new AtomicInteger();
+        private BookingService bookingService;
+        private Long itemId;
+
+        @Setup(Level.Trial)
+        public void setUp(ShareItDataset dataset) {
+            bookingService = dataset.bean(BookingService.class);
+            itemId = dataset.itemIds.get(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnItem {
+        private long slot;
+        private Long itemId;
+
+        @Setup(Level.Trial)
+        public void setUp(ShareItDataset dataset, HotItem hotItem) {
+            // вещь 0 занята горячим сценарием, остальные делятся между потоками
+            int index = 1 + hotItem.threads.getAndIncrement() % (dataset.itemIds.size() - 1);
+            itemId = dataset.itemIds.get(index);
+        }
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking(ShareItDataset dataset, HotItem hotItem, OwnItem ownItem) {
+        return hotItem.bookingService.createBooking(dataset.bookerId, slot(ownItem.itemId, ownItem.slot++));
+    }
+
+    @Benchmark
+    public BookingResponseDto createBookingSameItem(ShareItDataset dataset, HotItem hotItem) {
+        return hotItem.bookingService.createBooking(dataset.bookerId,
+                slot(hotItem.itemId, hotItem.slots.getAndIncrement()));
+    }
+
+    // двухчасовые слоты: бронь занимает первый час слота
+    private static BookingDto slot(Long itemId, long slot) {
+        BookingDto booking = new BookingDto();
+        booking.setItemId(itemId);
+        booking.setStart(FIRST_SLOT.plusHours(slot * 2));
+        booking.setEnd(FIRST_SLOT.plusHours(slot * 2 + 1));
+        return booking;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.booking.BookingBatchResultDto;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.server.booking.BookingService;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность вставок (строк в секунду) с id из последовательностей.
+ * <p>
+ * saveItems - {@value #ROWS} вещей одной транзакцией через репозиторий,
+ * createBookings - пакет из {@value #ROWS} бронирований через BookingService.createBookings.
+ * Сравнение с построчной вставкой: {@code -Djmh.args="InsertBenchmark -p items=1000 -p jdbcBatchSize=1,50"}.
+ * Слоты бронирований идут подряд с 2200 года и не пересекаются с данными набора.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 100;
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2200, 1, 1, 0, 0);
+
+    @State(Scope.Benchmark)
+    public static class Inserts {
+        private TransactionTemplate transactionTemplate;
+        private ItemRepository itemRepository;
+        private UserRepository userRepository;
+        private BookingService bookingService;
+        private long slot;
+
+        @Setup(Level.Trial)
+        public void setUp(ShareItDataset dataset) {
+            transactionTemplate = dataset.bean(TransactionTemplate.class);
+            itemRepository = dataset.bean(ItemRepository.class);
+            userRepository = dataset.bean(UserRepository.class);
+            bookingService = dataset.bean(BookingService.class);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Item> saveItems(ShareItDataset dataset, Inserts inserts) {
+        return inserts.transactionTemplate.execute(status -> {
+            User owner = inserts.userRepository.getReferenceById(dataset.ownerId);
+            List<Item> items = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Item item = new Item();
+                item.setName("Вещь " + i);
+                item.setDescription("Пакетная вставка");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                items.add(item);
+            }
+            return inserts.itemRepository.saveAll(items);
+        });
+    }
+
+    // каждое бронирование - отдельная вещь набора в своем слоте, пересечений нет
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BookingBatchResultDto> createBookings(ShareItDataset dataset, Inserts inserts) {
+        List<BookingDto> bookings = new ArrayList<>(ROWS);
+        long slot = inserts.slot++;
+        for (int i = 0; i < ROWS; i++) {
+            BookingDto booking = new BookingDto();
+            booking.setItemId(dataset.itemIds.get(i % dataset.itemIds.size()));
+            booking.setStart(FIRST_SLOT.plusHours(slot * 2));
+            booking.setEnd(FIRST_SLOT.plusHours(slot * 2 + 1));
+            bookings.add(booking);
+        }
+        return inserts.bookingService.createBookings(dataset.bookerId, bookings);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.item.ItemDto;
+import ru.practicum.server.item.ItemService;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemServiceImpl: страницы вещей владельца (первая, глубокая по смещению и по курсору)
+ * и поиск доступных вещей.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemServiceBenchmark {
+
+    @Param({"20", "500"})
+    public int pageSize;
+
+    // слово из названий набора данных
+    @Param({"дрель"})
+    public String text;
+
+    private ItemService itemService;
+    private int lastPageFrom;
+    private Long lastPageAfterId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) {
+        itemService = dataset.bean(ItemService.class);
+        lastPageFrom = Math.max(0, dataset.itemIds.size() - pageSize);
+        lastPageAfterId = lastPageFrom == 0 ? 0L : dataset.itemIds.get(lastPageFrom - 1);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> getItemsByOwner(ShareItDataset dataset) {
+        return itemService.getItemsByOwner(dataset.ownerId, 0, pageSize, null);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> getItemsByOwnerLastPageOffset(ShareItDataset dataset) {
+        return itemService.getItemsByOwner(dataset.ownerId, lastPageFrom, pageSize, null);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> getItemsByOwnerLastPageKeyset(ShareItDataset dataset) {
+        return itemService.getItemsByOwner(dataset.ownerId, 0, pageSize, lastPageAfterId);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> searchAvailableItems() {
+        return itemService.searchAvailableItems(text, 0, pageSize);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.booking.Booking;
+import ru.practicum.server.booking.BookingRepository;
+import ru.practicum.server.booking.ItemBookingWindow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Последнее и ближайшее бронирование для всех вещей владельца:
+ * один оконный запрос против двух запросов на каждую вещь (N+1).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LastNextBookingBenchmark {
+
+    private static final String LAST = "SELECT b FROM Booking b WHERE b.item.id = :itemId "
+            + "AND b.status = :status AND b.start < :now ORDER BY b.start DESC";
+    private static final String NEXT = "SELECT b FROM Booking b WHERE b.item.id = :itemId "
+            + "AND b.status = :status AND b.start > :now ORDER BY b.start ASC";
+
+    private BookingRepository bookingRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) {
+        bookingRepository = dataset.bean(BookingRepository.class);
+        entityManager = dataset.bean(EntityManager.class);
+        readOnly = new TransactionTemplate(dataset.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @Benchmark
+    public List<ItemBookingWindow> windowed(ShareItDataset dataset) {
+        return bookingRepository.findLastAndNextApprovedBookings(dataset.itemIds, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public int perItem(ShareItDataset dataset) {
+        LocalDateTime now = LocalDateTime.now();
+        return readOnly.execute(status -> {
+            int found = 0;
+            for (Long itemId : dataset.itemIds) {
+                found += first(LAST, itemId, now).size() + first(NEXT, itemId, now).size();
+            }
+            return found;
+        });
+    }
+
+    private List<Booking> first(String jpql, Long itemId, LocalDateTime now) {
+        return entityManager.createQuery(jpql, Booking.class)
+                .setParameter("itemId", itemId)
+                .setParameter("status", BookingStatus.APPROVED)
+                .setParameter("now", now)
+                .setMaxResults(1)
+                .getResultList();
+    }
+}
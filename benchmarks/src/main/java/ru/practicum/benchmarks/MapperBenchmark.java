@@ -0,0 +1,131 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.booking.BookingResponseDto;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.dto.item.ItemDto;
+import ru.practicum.dto.request.ItemRequestResponseDto;
+import ru.practicum.server.booking.Booking;
+import ru.practicum.server.booking.BookingMapper;
+import ru.practicum.server.booking.BookingMapperImpl;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemMapper;
+import ru.practicum.server.item.ItemMapperImpl;
+import ru.practicum.server.request.ItemRequest;
+import ru.practicum.server.request.ItemRequestMapper;
+import ru.practicum.server.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования сущностей в DTO без БД: сгенерированные MapStruct BookingMapperImpl
+ * и ItemMapperImpl, ручной ItemRequestMapper.toResponseDtoList.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private static final int ITEMS_PER_REQUEST = 5;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private final BookingMapper bookingMapper = new BookingMapperImpl();
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<ItemRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = user(1L);
+        User booker = user(2L);
+
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        requests = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Item item = item(i, owner);
+            items.add(item);
+
+            Booking booking = new Booking();
+            booking.setId(i);
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStart(now.plusDays(i));
+            booking.setEnd(now.plusDays(i + 1));
+            booking.setStatus(BookingStatus.APPROVED);
+            booking.setCreatedDate(now);
+            bookings.add(booking);
+
+            ItemRequest request = new ItemRequest();
+            request.setId(i);
+            request.setDescription("Нужна вещь " + i);
+            request.setRequester(booker);
+            request.setCreated(now);
+            for (long j = 0; j < ITEMS_PER_REQUEST; j++) {
+                Item offered = item(size + i * ITEMS_PER_REQUEST + j, owner);
+                offered.setRequest(request);
+                request.getItems().add(offered);
+            }
+            requests.add(request);
+        }
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingToResponseDto() {
+        List<BookingResponseDto> result = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            result.add(bookingMapper.toBookingResponseDto(booking));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ItemDto> itemToItemDto() {
+        return itemMapper.mapToItemDto(items);
+    }
+
+    @Benchmark
+    public List<ItemRequestResponseDto> requestToResponseDtoList() {
+        return ItemRequestMapper.toResponseDtoList(requests);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user" + id);
+        user.setEmail("user" + id + "@benchmark.ru");
+        return user;
+    }
+
+    private static Item item(Long id, User owner) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Вещь " + id);
+        item.setDescription("Описание вещи " + id);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.dto.item.ItemDto;
+import ru.practicum.server.ShareItServer;
+import ru.practicum.server.booking.Booking;
+import ru.practicum.server.booking.BookingIntervalIndex;
+import ru.practicum.server.booking.BookingRepository;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.item.ItemService;
+import ru.practicum.server.item.ItemViewProjector;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserDto;
+import ru.practicum.server.user.UserRepository;
+import ru.practicum.server.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервер без веб-слоя на встроенной H2 с набором данных заданного размера.
+ * <p>
+ * Владелец владеет всеми {@code items} вещами, у каждой вещи одно прошедшее и одно будущее
+ * подтвержденное бронирование другого пользователя. Пользователи и вещи создаются через сервисы,
+ * чтобы структуры в памяти (реестр id, поисковый индекс) заполнялись как при работе сервера.
+ * Бронирования в прошлом сервис создать не дает - они сохраняются репозиторием,
+ * после чего индекс интервалов прогревается заново.
+ */
+@State(Scope.Benchmark)
+public class ShareItDataset {
+
+    private static final String[] WORDS = {
+            "дрель", "перфоратор", "отвертка", "пила", "лестница", "палатка", "велосипед", "шуруповерт"
+    };
+
+    @Param({"1000", "10000"})
+    public int items;
+
+    // like, postgres или memory (см. shareit.search.engine)
+    @Param({"like"})
+    public String searchEngine;
+
+    // размер пачки JDBC (hibernate.jdbc.batch_size); 1 - каждая строка отдельной командой
+    @Param({"50"})
+    public int jdbcBatchSize;
+
+    public Long ownerId;
+    public Long bookerId;
+    public List<Long> itemIds;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--shareit.search.engine=" + searchEngine,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        populate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void populate() {
+        UserService userService = bean(UserService.class);
+        ownerId = userService.createUser(user("owner")).getId();
+        bookerId = userService.createUser(user("booker")).getId();
+
+        ItemService itemService = bean(ItemService.class);
+        itemIds = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ItemDto item = new ItemDto();
+            item.setName(WORDS[i % WORDS.length] + " " + i);
+            item.setDescription("Аккумуляторная " + WORDS[(i * 7 + 3) % WORDS.length] + ", комплект " + i);
+            item.setAvailable(true);
+            itemIds.add(itemService.createItem(ownerId, item).getId());
+        }
+
+        ItemRepository itemRepository = bean(ItemRepository.class);
+        UserRepository userRepository = bean(UserRepository.class);
+        BookingRepository bookingRepository = bean(BookingRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        bean(TransactionTemplate.class).executeWithoutResult(status -> {
+            User booker = userRepository.getReferenceById(bookerId);
+            List<Booking> bookings = new ArrayList<>(items * 2);
+            for (Long itemId : itemIds) {
+                Item item = itemRepository.getReferenceById(itemId);
+                bookings.add(approved(item, booker, now.minusDays(2), now.minusDays(1)));
+                bookings.add(approved(item, booker, now.plusDays(1), now.plusDays(2)));
+            }
+            bookingRepository.saveAll(bookings);
+        });
+        bean(BookingIntervalIndex.class).warmUp();
+        // бронирования сохранены в обход сервиса - окна бронирований в представлении вещей пересобираются
+        bean(ItemViewProjector.class).rebuild();
+    }
+
+    private static UserDto user(String name) {
+        UserDto user = new UserDto();
+        user.setName(name);
+        user.setEmail(name + "@benchmark.ru");
+        return user;
+    }
+
+    private static Booking approved(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+}
@@ -7,10 +7,15 @@ import ru.practicum.dto.booking.BookingState;
 import ru.practicum.gateway.client.ClientRestFactory;
 import ru.practicum.dto.booking.BookingDto;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.GatewayResponseCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -20,8 +25,10 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     public BookingClient(@Value("${shareit-server.url}") String serverUrl,
-                         RestTemplateBuilder builder) {
-        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder));
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory serverRequestFactory,
+                         GatewayResponseCache responseCache) {
+        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder, serverRequestFactory), responseCache, serverUrl + "/items");
     }
 
     //Методы для работы с бронированиями
@@ -31,6 +38,11 @@ public class BookingClient extends BaseClient {
         return post("", bookerId, bookingDto);
     }
 
+    public ResponseEntity<Object> createBookings(Long bookerId, List<BookingDto> bookingDtos) {
+        log.debug("BookingClient: пакет из {} бронирований пользователем {}", bookingDtos.size(), bookerId);
+        return post("/batch", bookerId, bookingDtos);
+    }
+
     public ResponseEntity<Object> updateBookingStatus(Long bookingId, Boolean approved, Long userId) {
         log.debug("BookingClient: обновление статуса бронирования {}, approved={}, userId={}",
                 bookingId, approved, userId);
@@ -50,33 +62,41 @@ public class BookingClient extends BaseClient {
         return get("/{bookingId}", userId, Map.of("bookingId", bookingId));
     }
 
-    public ResponseEntity<Object> getUserBookings(Long userId, String state, Integer from, Integer size) {
-        log.debug("BookingClient: получение бронирований пользователя {}, state={}, from={}, size={}",
-                userId, state, from, size);
-
-        String path = "?state={state}&from={from}&size={size}";
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
+    public ResponseEntity<Object> getUserBookings(Long userId, String state, Integer from, Integer size,
+                                                  LocalDateTime cursorStart, Long cursorId) {
+        log.debug("BookingClient: получение бронирований пользователя {}, state={}, from={}, size={}, cursor=({}, {})",
+                userId, state, from, size, cursorStart, cursorId);
 
-        return get(path, userId, parameters);
+        String path = pagePath("?state={state}", cursorStart);
+        return get(path, userId, pageParameters(state, from, size, cursorStart, cursorId));
     }
 
-    public ResponseEntity<Object> getOwnerBookings(Long ownerId, BookingState state, Integer from, Integer size) {
-        log.debug("BookingClient: получение бронирований владельца {}, state={}, from={}, size={}",
-                ownerId, state, from, size);
+    public ResponseEntity<Object> getOwnerBookings(Long ownerId, BookingState state, Integer from, Integer size,
+                                                   LocalDateTime cursorStart, Long cursorId) {
+        log.debug("BookingClient: получение бронирований владельца {}, state={}, from={}, size={}, cursor=({}, {})",
+                ownerId, state, from, size, cursorStart, cursorId);
 
-        String stateString = state.name();
+        String path = pagePath("/owner?state={state}", cursorStart);
+        return get(path, ownerId, pageParameters(state.name(), from, size, cursorStart, cursorId));
+    }
 
-        String path = "/owner?state={state}&from={from}&size={size}";
-        Map<String, Object> parameters = Map.of(
-                "state", stateString,
-                "from", from,
-                "size", size
-        );
+    // keyset-курсор (start, id) передается вместо смещения
+    private static String pagePath(String path, LocalDateTime cursorStart) {
+        return cursorStart != null
+                ? path + "&cursorStart={cursorStart}&cursorId={cursorId}&size={size}"
+                : path + "&from={from}&size={size}";
+    }
 
-        return get(path, ownerId, parameters);
+    private static Map<String, Object> pageParameters(String state, Integer from, Integer size,
+                                                      LocalDateTime cursorStart, Long cursorId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursorStart != null) {
+            parameters.put("cursorStart", cursorStart.toString());
+            parameters.put("cursorId", cursorId);
+        }
+        return parameters;
     }
 }
@@ -2,10 +2,12 @@ package ru.practicum.gateway.booking;
 
 import ru.practicum.dto.booking.BookingDto;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +15,7 @@ import ru.practicum.dto.booking.BookingState;
 import ru.practicum.gateway.exception.GatewayValidationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Validated
@@ -37,6 +40,20 @@ public class BookingController {
         return bookingClient.createBooking(bookerId, bookingDto);
     }
 
+    // Пакетное создание бронирований: каждый элемент проверяется как одиночное бронирование,
+    // пустые элементы, пересечения и предел размера пакета (shareit.booking.batch.max-size) проверяет сервер
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(
+            @Positive(message = "ID пользователя должен быть больше 0")
+            @RequestHeader(userHeader) Long bookerId,
+            @NotEmpty(message = "Пакет бронирований не может быть пустым")
+            @RequestBody List<@Valid BookingDto> bookingDtos) {
+
+        log.info("POST /bookings/batch - Пакет из {} бронирований пользователем {}", bookingDtos.size(), bookerId);
+
+        return bookingClient.createBookings(bookerId, bookingDtos);
+    }
+
     // Обновление статуса бронирования
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> bookingStatusUpdate(
@@ -78,14 +95,17 @@ public class BookingController {
             @RequestHeader(userHeader) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @Positive @RequestParam(required = false) Long cursorId) {
 
-        log.info("GET /bookings - Запрос списка бронирований пользователя: userId={}, state={}, from={}, size={}",
-                userId, state, from, size);
+        log.info("GET /bookings - Запрос списка бронирований пользователя: userId={}, state={}, from={}, size={}, "
+                + "cursor=({}, {})", userId, state, from, size, cursorStart, cursorId);
 
         validatePaginationParams(from, size);
+        validateCursor(cursorStart, cursorId);
 
-        return bookingClient.getUserBookings(userId, state, from, size);
+        return bookingClient.getUserBookings(userId, state, from, size, cursorStart, cursorId);
     }
 
     // Бронирования владельца
@@ -95,15 +115,17 @@ public class BookingController {
             @RequestHeader(userHeader) Long userId,
             @RequestParam(defaultValue = "ALL") BookingState state,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @Positive @RequestParam(required = false) Long cursorId) {
 
-        log.info("GET /bookings/owner - Запрос списка бронирований владельца: ownerId={}, state={}, from={}, size={}",
-                userId, state, from, size);
+        log.info("GET /bookings/owner - Запрос списка бронирований владельца: ownerId={}, state={}, from={}, size={}, "
+                + "cursor=({}, {})", userId, state, from, size, cursorStart, cursorId);
 
         validatePaginationParams(from, size);
+        validateCursor(cursorStart, cursorId);
 
-
-        return bookingClient.getOwnerBookings(userId, state, from, size);
+        return bookingClient.getOwnerBookings(userId, state, from, size, cursorStart, cursorId);
     }
 
     //Валидация пагинации
@@ -119,6 +141,14 @@ public class BookingController {
         log.debug("Валидация пагинации пройдена: from={}, size={}", from, size);
     }
 
+    // Курсор - последняя полученная бронь: задается парой start и id
+    private void validateCursor(LocalDateTime cursorStart, Long cursorId) {
+        if ((cursorStart == null) != (cursorId == null)) {
+            log.warn("Валидация курсора: неполная пара cursorStart={}, cursorId={}", cursorStart, cursorId);
+            throw new GatewayValidationException("Курсор задается парой параметров cursorStart и cursorId");
+        }
+    }
+
     private void validateBookingDates(BookingDto bookingDto) {
         if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
             throw new GatewayValidationException("Дата начала не может быть в прошлом");
@@ -1,22 +1,49 @@
 package ru.practicum.gateway.client;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "content-length");
+
     protected final RestTemplate rest;
+    private final GatewayResponseCache responseCache;
+    // ресурсы, кэш которых устаревает при изменениях через этот клиент
+    private final List<String> invalidatedPrefixes;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, GatewayResponseCache responseCache, String... dependentResourceUrls) {
         this.rest = rest;
+        this.responseCache = responseCache;
+        this.invalidatedPrefixes = new ArrayList<>(List.of(dependentResourceUrls));
+        this.invalidatedPrefixes.add(rest.getUriTemplateHandler().expand("").toString());
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -31,6 +58,56 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    // Чтение через кэш ответов gateway (если он включен).
+    // If-None-Match клиента проверяется по свежей записи кэша, иначе уходит на сервер вместе с ETag
+    // записи: 304 для записи кэша продлевает ее, 304 для ETag клиента передается клиенту как есть
+    protected ResponseEntity<Object> getCached(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        if (!responseCache.isEnabled()) {
+            return get(path, userId, parameters);
+        }
+        URI uri = expand(path, parameters);
+        String key = GatewayResponseCache.key(uri, userId);
+        List<String> clientETags = clientIfNoneMatch();
+        GatewayResponseCache.CachedResponse cached = responseCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            return toResponse(cached, clientETags);
+        }
+
+        HttpHeaders headers = defaultHeaders(userId);
+        List<String> eTags = new ArrayList<>(clientETags);
+        if (cached != null && cached.etag() != null && !eTags.contains(cached.etag())) {
+            eTags.add(cached.etag());
+        }
+        if (!eTags.isEmpty()) {
+            headers.setIfNoneMatch(eTags);
+        }
+        long generation = responseCache.generation();
+        ResponseEntity<byte[]> response;
+        try {
+            response = rest.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(passthroughHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            // без ETag клиента совпасть мог только ETag записи кэша
+            if (cached != null && cached.etag() != null && (clientETags.isEmpty()
+                    || matches(List.of(cached.etag()), response.getHeaders().getETag()))) {
+                return toResponse(responseCache.revalidated(key, cached, generation), clientETags);
+            }
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(passthroughHeaders(response.getHeaders()))
+                    .build();
+        }
+        if (response.getStatusCode() == HttpStatus.OK) {
+            responseCache.put(key, uri, response, generation);
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(passthroughHeaders(response.getHeaders()))
+                .body(response.getBody());
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,44 +156,139 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    // Потоковая передача ответа сервера (NDJSON) клиенту без буферизации и разбора.
+    // Статус сервера известен до начала передачи, поэтому ошибки возвращаются как обычно.
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId,
+                                                           @Nullable Map<String, Object> parameters) {
+        URI uri = expand(path, parameters);
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().putAll(defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+            response = request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("Ошибка обращения к серверу: " + e.getMessage(), e);
+        }
+
+        try {
+            HttpStatusCode status = response.getStatusCode();
+            MediaType contentType = response.getHeaders().getContentType();
+            if (status.isError()) {
+                byte[] error = StreamUtils.copyToByteArray(response.getBody());
+                response.close();
+                return ResponseEntity.status(status)
+                        .contentType(contentType != null ? contentType : MediaType.APPLICATION_JSON)
+                        .body(outputStream -> outputStream.write(error));
+            }
+            return ResponseEntity.status(status)
+                    .contentType(contentType != null ? contentType : MediaType.APPLICATION_NDJSON)
+                    .body(outputStream -> {
+                        try (response) {
+                            StreamUtils.copy(response.getBody(), outputStream);
+                        }
+                    });
+        } catch (IOException e) {
+            response.close();
+            throw new ResourceAccessException("Ошибка чтения ответа сервера: " + e.getMessage(), e);
+        }
+    }
+
+    // Тело ответа сервера передается клиенту байтами, без разбора JSON в gateway.
+    // Ошибки сервера (4xx/5xx) возвращаются так же: статус, заголовки и тело как есть
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        HttpHeaders headers = defaultHeaders(userId);
+        // условный GET клиента проверяет сервер: его 304 передается как есть
+        List<String> clientETags = method == HttpMethod.GET ? clientIfNoneMatch() : List.of();
+        if (!clientETags.isEmpty()) {
+            headers.setIfNoneMatch(clientETags);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(passthroughHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        } finally {
+            if (method != HttpMethod.GET && responseCache.isEnabled()) {
+                invalidatedPrefixes.forEach(responseCache::invalidate);
+            }
         }
-        // return prepareGatewayResponse(shareitServerResponse);
-        return shareitServerResponse;
+        return ResponseEntity.status(shareitServerResponse.getStatusCode())
+                .headers(passthroughHeaders(shareitServerResponse.getHeaders()))
+                .body(shareitServerResponse.getBody());
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+    }
+
+    // Ответ из записи кэша; 304 без тела, если у клиента уже есть эта версия
+    private static ResponseEntity<Object> toResponse(GatewayResponseCache.CachedResponse cached,
+                                                     List<String> clientETags) {
+        HttpHeaders headers = passthroughHeaders(cached.headers());
+        if (cached.etag() != null && matches(clientETags, cached.etag())) {
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
         }
-        return headers;
+        return ResponseEntity.status(cached.status())
+                .headers(headers)
+                .body(cached.body());
+    }
+
+    // If-None-Match входящего запроса клиента: вызов идет в потоке запроса сервлета
+    private static List<String> clientIfNoneMatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return List.of();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(HttpHeaders.IF_NONE_MATCH,
+                Collections.list(servletAttributes.getRequest().getHeaders(HttpHeaders.IF_NONE_MATCH)));
+        return headers.getIfNoneMatch();
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // Слабое сравнение ETag, как при проверке If-None-Match
+    private static boolean matches(List<String> eTags, @Nullable String eTag) {
+        if (eTag == null) {
+            return false;
         }
+        String value = stripWeak(eTag);
+        return eTags.stream().anyMatch(tag -> "*".equals(tag) || stripWeak(tag).equals(value));
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    // Заголовки ответа сервера без hop-by-hop и длины (их выставляет сервлет-контейнер gateway)
+    private static HttpHeaders passthroughHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders == null) {
+            return headers;
         }
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
 
-        return responseBuilder.build();
+    private HttpHeaders defaultHeaders(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return headers;
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package ru.practicum.gateway.client;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
@@ -11,11 +10,12 @@ public final class ClientRestFactory {
     private ClientRestFactory() {
     }
 
-    public static RestTemplate build(String baseUrl, RestTemplateBuilder builder) {
-        ClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+    // все клиенты используют общую фабрику запросов и общий пул соединений с сервером (ServerHttpClientConfig)
+    public static RestTemplate build(String baseUrl, RestTemplateBuilder builder,
+                                     ClientHttpRequestFactory requestFactory) {
         return builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
                 .requestFactory(() -> requestFactory)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package ru.practicum.gateway.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш ответов сервера на чтение (включается shareit-gateway.cache.enabled).
+ * <p>
+ * Ключ - полный URI запроса (путь и параметры) и X-Sharer-User-Id. Размер ограничен
+ * (вытесняется давно не читавшаяся запись), запись свежая в течение ttl. Устаревшая запись
+ * с ETag перепроверяется на сервере через If-None-Match: ответ 304 продлевает ее без передачи тела.
+ * Изменяющий запрос, прошедший через gateway, удаляет записи своего ресурса; ответ, запрошенный
+ * до такого удаления, в кэш уже не попадает.
+ * <p>
+ * Доступ к карте защищен ReentrantLock, а не synchronized: виртуальный поток, ожидающий монитор,
+ * занимает поток-носитель (pinning в JDK 21).
+ */
+@Slf4j
+@Component
+public class GatewayResponseCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<String, CachedResponse> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public GatewayResponseCache(@Value("${shareit-gateway.cache.enabled:false}") boolean enabled,
+                                @Value("${shareit-gateway.cache.max-entries:10000}") int maxEntries,
+                                @Value("${shareit-gateway.cache.ttl:5s}") Duration ttl) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (enabled) {
+            log.info("Кэш ответов gateway включен: до {} записей, ttl {}", maxEntries, ttl);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String key(URI uri, @Nullable Long userId) {
+        return (userId != null ? userId : "-") + " " + uri;
+    }
+
+    // номер поколения берется до запроса к серверу и передается в put и revalidated
+    public long generation() {
+        return generation.get();
+    }
+
+    @Nullable
+    public CachedResponse get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, URI uri, ResponseEntity<byte[]> response, long requestGeneration) {
+        CachedResponse cached = new CachedResponse(uri.toString(), response.getStatusCode(), response.getHeaders(),
+                response.getBody(), response.getHeaders().getETag(), System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            if (requestGeneration == generation.get()) {
+                entries.put(key, cached);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // сервер подтвердил (304), что запись не изменилась. Если с момента запроса ресурс изменили
+    // через gateway, ответ 304 мог быть получен до фиксации изменения - запись не продлевается
+    public CachedResponse revalidated(String key, CachedResponse cached, long requestGeneration) {
+        CachedResponse renewed = cached.renew(System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            if (requestGeneration == generation.get()) {
+                entries.put(key, renewed);
+            } else {
+                entries.remove(key, cached);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return renewed;
+    }
+
+    // удаление записей ресурса: все URI, начинающиеся с префикса
+    public void invalidate(String uriPrefix) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> entry.uri().startsWith(uriPrefix));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record CachedResponse(String uri, HttpStatusCode status, HttpHeaders headers, @Nullable byte[] body,
+                                 @Nullable String etag, long expiresAtNanos) {
+
+        public boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+
+        CachedResponse renew(long expiresAt) {
+            return new CachedResponse(uri, status, headers, body, etag, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.gateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки пула HTTP-соединений gateway -> сервер ShareIt
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class ServerHttpClientProperties {
+
+    // всего соединений в пуле
+    private int maxTotal = 200;
+
+    // соединений на один маршрут (у gateway он один - сервер ShareIt)
+    private int maxPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // ожидание ответа сервера (таймаут чтения сокета)
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // ожидание свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    // сколько держать соединение открытым, если сервер не прислал Keep-Alive
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // простаивающие дольше соединения закрываются фоновым потоком
+    private Duration idleEviction = Duration.ofSeconds(60);
+
+    // проверка соединения перед выдачей, если оно простаивало дольше
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,36 @@
+package ru.practicum.gateway.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.stream.Collectors;
+
+@RestControllerAdvice
+@Slf4j
+public class GatewayExceptionHandler {
+
+    // проверки параметров в контроллерах gateway (400)
+    @ExceptionHandler(GatewayValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleGatewayValidationException(GatewayValidationException exception) {
+        log.warn("Ошибка валидации: {}", exception.getMessage());
+        return new ErrorResponse("Ошибка валидации", exception.getMessage());
+    }
+
+    // аннотации параметров методов @Validated контроллеров, в том числе элементы List<@Valid ...> (400)
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolationException(ConstraintViolationException exception) {
+        String errorMessage = exception.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+
+        log.warn("Ошибка аргументов: {}", errorMessage);
+        return new ErrorResponse("Ошибка валидации", errorMessage);
+    }
+}
@@ -6,10 +6,15 @@ import ru.practicum.gateway.client.ClientRestFactory;
 import ru.practicum.dto.item.CommentDto;
 import ru.practicum.dto.item.ItemDto;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.GatewayResponseCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
@@ -18,8 +23,10 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     public ItemClient(@Value("${shareit-server.url}") String serverUrl,
-                      RestTemplateBuilder builder) {
-        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder));
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory,
+                      GatewayResponseCache responseCache) {
+        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder, serverRequestFactory), responseCache, serverUrl + "/requests");
     }
 
     // Методы для работы с вещами
@@ -30,7 +37,20 @@ public class ItemClient extends BaseClient {
 
     public ResponseEntity<Object> getItemById(Long itemId, Long ownerId) {
         log.debug("ItemClient: получение вещи {}, userId={}", itemId, ownerId);
-        return get("/" + itemId, ownerId);
+        return getCached("/" + itemId, ownerId, null);
+    }
+
+    public ResponseEntity<Object> getComments(Long itemId, Integer size, LocalDateTime cursorCreated, Long cursorId) {
+        log.debug("ItemClient: комментарии вещи {}, size={}, cursor=({}, {})", itemId, size, cursorCreated, cursorId);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        if (cursorCreated == null) {
+            return getCached("/" + itemId + "/comments?size={size}", null, parameters);
+        }
+        parameters.put("cursorCreated", cursorCreated.toString());
+        parameters.put("cursorId", cursorId);
+        return getCached("/" + itemId + "/comments?size={size}&cursorCreated={cursorCreated}&cursorId={cursorId}",
+                null, parameters);
     }
 
     public ResponseEntity<Object> updateItem(Long itemId, ItemDto itemDto, Long userId) {
@@ -38,20 +58,38 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getMyItems(Long ownerId) {
-        log.debug("ItemClient: получение вещей владельца {}", ownerId);
-        return get("", ownerId);
+    public ResponseEntity<Object> getMyItems(Long ownerId, Integer from, Integer size, Long afterId) {
+        log.debug("ItemClient: получение вещей владельца {}, from={}, size={}, afterId={}", ownerId, from, size, afterId);
+        return get(pagePath("", from, size, afterId), ownerId, pageParameters(from, size, afterId));
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamMyItems(Long ownerId) {
+        log.debug("ItemClient: потоковое получение вещей владельца {}", ownerId);
+        return stream("?stream=true", ownerId, null);
     }
 
-    public ResponseEntity<Object> searchAvailableItems(String text) {
-        log.debug("ItemClient: поиск вещей по тексту: '{}'", text);
-        Map<String, Object> param = Map.of("text", text);
-        return get("/search?text={text}", null, param);
+    public ResponseEntity<Object> searchAvailableItems(String text, Integer from, Integer size) {
+        log.debug("ItemClient: поиск вещей по тексту: '{}', from={}, size={}", text, from, size);
+        Map<String, Object> param = new HashMap<>();
+        param.put("text", text);
+        param.put("from", from);
+        param.put("size", size);
+        return getCached("/search?text={text}" + pageQuery(from, size), null, param);
     }
 
-    public ResponseEntity<Object> getAllItems() {
-        log.debug("ItemClient: получение всех вещей");
-        return get(API_PREFIX, null, null);
+    public ResponseEntity<StreamingResponseBody> streamSearchAvailableItems(String text) {
+        log.debug("ItemClient: потоковый поиск вещей по тексту: '{}'", text);
+        return stream("/search?text={text}&stream=true", null, Map.of("text", text));
+    }
+
+    public ResponseEntity<Object> getAllItems(Integer from, Integer size, Long afterId) {
+        log.debug("ItemClient: получение всех вещей, from={}, size={}, afterId={}", from, size, afterId);
+        return get(pagePath("/allTeam", from, size, afterId), null, pageParameters(from, size, afterId));
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        log.debug("ItemClient: потоковое получение всех вещей");
+        return stream("/allTeam?stream=true", null, null);
     }
 
     public ResponseEntity<Object> addComment(Long ownerId, Long itemId, CommentDto commentDto) {
@@ -59,4 +97,27 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", ownerId, commentDto);
     }
 
-}
\ No newline at end of file
+    // keyset после afterId или from/size; без параметров сервер отдает весь список
+    private static String pagePath(String path, Integer from, Integer size, Long afterId) {
+        if (afterId != null) {
+            return path + "?afterId={afterId}" + (size != null ? "&size={size}" : "");
+        }
+        String query = pageQuery(from, size);
+        return query.isEmpty() ? path : path + "?" + query.substring(1);
+    }
+
+    // передаются только заданные параметры: значения по умолчанию выбирает сервер
+    private static String pageQuery(Integer from, Integer size) {
+        return (from != null ? "&from={from}" : "") + (size != null ? "&size={size}" : "");
+    }
+
+    private static Map<String, Object> pageParameters(Integer from, Integer size, Long afterId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (afterId != null) {
+            parameters.put("afterId", afterId);
+        }
+        return parameters;
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.gateway.item;
 
 
 import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import ru.practicum.dto.item.CommentDto;
 import ru.practicum.dto.item.ItemDto;
@@ -11,8 +13,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.gateway.exception.GatewayValidationException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -43,30 +47,73 @@ public class ItemController {
         return itemClient.getItemById(itemId, ownerId);
     }
 
-    // просмотр вещей владельца
+    // комментарии вещи страницами: новые сначала, курсор - created и id последнего полученного
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(
+            @Positive @PathVariable Long itemId,
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorCreated,
+            @Positive @RequestParam(required = false) Long cursorId) {
+        log.info("GET /items/{}/comments - size={}, cursor=({}, {})", itemId, size, cursorCreated, cursorId);
+
+        if ((cursorCreated == null) != (cursorId == null)) {
+            throw new GatewayValidationException("Курсор задается парой параметров cursorCreated и cursorId");
+        }
+
+        return itemClient.getComments(itemId, size, cursorCreated, cursorId);
+    }
+
+    // просмотр вещей владельца: from/size или keyset после afterId, без них - все вещи
     @GetMapping()
     public ResponseEntity<Object> getMyItems(
             @Positive @RequestHeader(userHeader) Long ownerId,
-            @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("GET /items - Вещи владельца {}, from={}, size={}", ownerId, from, size);
+            @PositiveOrZero @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @Positive @RequestParam(required = false) Long afterId) {
+        log.info("GET /items - Вещи владельца {}, from={}, size={}, afterId={}", ownerId, from, size, afterId);
 
         validatePaginationParams(from, size);
 
-        return itemClient.getMyItems(ownerId);
+        return itemClient.getMyItems(ownerId, from, size, afterId);
     }
 
-    // поиск вещи по названию или описанию
+    // потоковый просмотр вещей владельца (NDJSON)
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMyItems(@Positive @RequestHeader(userHeader) Long ownerId) {
+        log.info("GET /items?stream=true - Потоковый вывод вещей владельца {}", ownerId);
+        return itemClient.streamMyItems(ownerId);
+    }
+
+    // поиск вещи по названию или описанию; без from/size - все найденные вещи
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam(required = false) String text) {
-        log.info("GET /items/search - Запрос на поиск вещей по тексту: '{}'", text);
+    public ResponseEntity<Object> searchItem(@RequestParam(required = false) String text,
+                                             @PositiveOrZero @RequestParam(required = false) Integer from,
+                                             @RequestParam(required = false) Integer size) {
+        log.info("GET /items/search - Запрос на поиск вещей по тексту: '{}', from={}, size={}", text, from, size);
 
         if (text == null || text.isBlank()) {
             log.info("GET /items/search - Пустой поисковый запрос");
             return ResponseEntity.ok(List.of());
         }
 
-        return itemClient.searchAvailableItems(text);
+        validatePaginationParams(from, size);
+
+        return itemClient.searchAvailableItems(text, from, size);
+    }
+
+    // потоковый поиск (NDJSON)
+    @GetMapping(value = "/search", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchItem(@RequestParam(required = false) String text) {
+        log.info("GET /items/search?stream=true - Потоковый поиск вещей по тексту: '{}'", text);
+
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(outputStream -> {
+                    });
+        }
+
+        return itemClient.streamSearchAvailableItems(text);
     }
 
     // обновление вещи пользователем
@@ -81,11 +128,24 @@ public class ItemController {
         return itemClient.updateItem(itemId, itemDto, userId);
     }
 
-    // вывод всех вещей
+    // вывод всех вещей: from/size или keyset после afterId, без них - все вещи
     @GetMapping("/allTeam")
-    public ResponseEntity<Object> getAllItems() {
-        log.info("GET /items/allTeam - Запрос на вывод всех вещей");
-        return itemClient.getAllItems();
+    public ResponseEntity<Object> getAllItems(
+            @PositiveOrZero @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @Positive @RequestParam(required = false) Long afterId) {
+        log.info("GET /items/allTeam - Запрос на вывод всех вещей, from={}, size={}, afterId={}", from, size, afterId);
+
+        validatePaginationParams(from, size);
+
+        return itemClient.getAllItems(from, size, afterId);
+    }
+
+    // потоковый вывод всех вещей (NDJSON)
+    @GetMapping(value = "/allTeam", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        log.info("GET /items/allTeam?stream=true - Потоковый вывод всех вещей");
+        return itemClient.streamAllItems();
     }
 
     // добавление комментария
@@ -108,10 +168,10 @@ public class ItemController {
 
     // Метод проверки пагинации
     private void validatePaginationParams(Integer from, Integer size) {
-        if (from < 0) {
+        if (from != null && from < 0) {
             throw new GatewayValidationException("Параметр 'from' не может быть отрицательным");
         }
-        if (size <= 0) {
+        if (size != null && size <= 0) {
             throw new GatewayValidationException("Параметр 'size' должен быть положительным");
         }
     }
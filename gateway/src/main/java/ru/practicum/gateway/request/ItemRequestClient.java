@@ -5,9 +5,11 @@ import org.springframework.stereotype.Service;
 import ru.practicum.gateway.client.ClientRestFactory;
 import ru.practicum.dto.request.ItemRequestDto;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.GatewayResponseCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 
 import java.util.Map;
 
@@ -17,8 +19,10 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
-                             RestTemplateBuilder builder) {
-        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder));
+                             RestTemplateBuilder builder,
+                             ClientHttpRequestFactory serverRequestFactory,
+                             GatewayResponseCache responseCache) {
+        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder, serverRequestFactory), responseCache);
     }
 
     // Методы для работы с запросами
@@ -30,7 +34,7 @@ public class ItemRequestClient extends BaseClient {
 
     public ResponseEntity<Object> getMyRequests(Long userId) {
         log.debug("ItemRequestClient: получение запросов пользователя {}", userId);
-        return get("", userId, null);
+        return getCached("", userId, null);
     }
 
     public ResponseEntity<Object> getAllOtherRequests(Long userId, Integer from, Integer size) {
@@ -43,11 +47,11 @@ public class ItemRequestClient extends BaseClient {
                 "size", size
         );
 
-        return get(path, userId, parameters);
+        return getCached(path, userId, parameters);
     }
 
     public ResponseEntity<Object> getRequestById(Long requestId, Long userId) {
         log.debug("ItemRequestClient: получение запроса {}, userId={}", requestId, userId);
-        return get("/{requestId}", userId, Map.of("requestId", requestId));
+        return getCached("/{requestId}", userId, Map.of("requestId", requestId));
     }
 }
\ No newline at end of file
@@ -3,10 +3,12 @@ package ru.practicum.gateway.user;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import ru.practicum.gateway.client.ClientRestFactory;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.GatewayResponseCache;
 
 @Service
 public class UserClient extends BaseClient {
@@ -14,8 +16,11 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     public UserClient(@Value("${shareit-server.url}") String serverUrl,
-                      RestTemplateBuilder builder) {
-        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder));
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory,
+                      GatewayResponseCache responseCache) {
+        // имена авторов входят в комментарии ответов /items
+        super(ClientRestFactory.build(serverUrl + API_PREFIX, builder, serverRequestFactory), responseCache, serverUrl + "/items");
     }
 
     public ResponseEntity<Object> createUser(UserDto dto) {
@@ -23,7 +28,7 @@ public class UserClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getUser(Long userId) {
-        return get("/" + userId, userId);
+        return getCached("/" + userId, userId, null);
     }
 
     public ResponseEntity<Object> getAllUsers() {
@@ -0,0 +1,75 @@
+package ru.practicum.gateway.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Элементы пакета бронирований gateway проверяет теми же аннотациями BookingDto, что и одиночное бронирование
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingBatchValidationTest {
+
+    private static final String START = LocalDateTime.now().plusDays(1).withNano(0).toString();
+    private static final String END = LocalDateTime.now().plusDays(2).withNano(0).toString();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private BookingClient bookingClient;
+
+    @Test
+    void batchWithInvalidElementIsRejected() throws Exception {
+        String batch = "[" + booking(1, START, END) + "," + booking(1, START, START) + "]";
+
+        mockMvc.perform(post("/bookings/batch").header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Ошибка валидации"));
+
+        verify(bookingClient, never()).createBookings(any(), anyList());
+    }
+
+    @Test
+    void singleBookingWithSameDatesIsRejected() throws Exception {
+        mockMvc.perform(post("/bookings").header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking(1, START, START)))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBooking(any(), any());
+    }
+
+    // пустой элемент отклоняет сервер результатом по его позиции, а не весь пакет
+    @Test
+    void validBatchWithNullElementIsForwarded() throws Exception {
+        when(bookingClient.createBookings(eq(1L), anyList())).thenReturn(ResponseEntity.ok(List.of()));
+        String batch = "[" + booking(1, START, END) + ",null]";
+
+        mockMvc.perform(post("/bookings/batch").header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).createBookings(eq(1L), anyList());
+    }
+
+    private static String booking(long itemId, String start, String end) {
+        return "{\"itemId\":" + itemId + ",\"start\":\"" + start + "\",\"end\":\"" + end + "\"}";
+    }
+}
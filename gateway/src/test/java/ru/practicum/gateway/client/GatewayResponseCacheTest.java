@@ -0,0 +1,243 @@
+package ru.practicum.gateway.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.dto.item.ItemDto;
+import ru.practicum.dto.user.UserDto;
+import ru.practicum.gateway.booking.BookingClient;
+import ru.practicum.gateway.item.ItemClient;
+import ru.practicum.gateway.request.ItemRequestClient;
+import ru.practicum.gateway.user.UserClient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// Кэш ответов gateway: свежесть записи, перепроверка через If-None-Match, вытеснение,
+// поколения при параллельных изменениях и удаление записей зависимых ресурсов
+class GatewayResponseCacheTest {
+
+    private static final String SERVER_URL = "http://shareit-server";
+    private static final Duration LONG_TTL = Duration.ofHours(1);
+
+    private GatewayResponseCache cache;
+    private MockRestServiceServer server;
+    private ItemClient itemClient;
+    private UserClient userClient;
+    private BookingClient bookingClient;
+    private ItemRequestClient itemRequestClient;
+
+    @Test
+    void freshEntryIsServedWithoutServer() {
+        createClients(LONG_TTL);
+        expectGet("/items/1").andRespond(item("v1", "drill"));
+
+        ResponseEntity<Object> first = itemClient.getItemById(1L, null);
+        ResponseEntity<Object> second = itemClient.getItemById(1L, null);
+
+        server.verify();
+        assertThat(body(second)).isEqualTo(body(first)).isEqualTo("drill");
+        assertThat(second.getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedWithItsETag() {
+        createClients(Duration.ZERO);
+        expectGet("/items/1").andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(item("v1", "drill"));
+        expectGet("/items/1").andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTag("v1")));
+        expectGet("/items/1").andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(item("v2", "hammer"));
+
+        itemClient.getItemById(1L, null);
+        ResponseEntity<Object> revalidated = itemClient.getItemById(1L, null);
+        ResponseEntity<Object> changed = itemClient.getItemById(1L, null);
+
+        server.verify();
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(revalidated)).isEqualTo("drill");
+        assertThat(body(changed)).isEqualTo("hammer");
+    }
+
+    @Test
+    void leastRecentlyReadEntryIsEvictedAtCapacity() {
+        GatewayResponseCache smallCache = new GatewayResponseCache(true, 2, LONG_TTL);
+        URI first = URI.create(SERVER_URL + "/items/1");
+        URI second = URI.create(SERVER_URL + "/items/2");
+        URI third = URI.create(SERVER_URL + "/items/3");
+        smallCache.put(key(first), first, ResponseEntity.ok(new byte[0]), smallCache.generation());
+        smallCache.put(key(second), second, ResponseEntity.ok(new byte[0]), smallCache.generation());
+
+        smallCache.get(key(first));
+        smallCache.put(key(third), third, ResponseEntity.ok(new byte[0]), smallCache.generation());
+
+        assertThat(smallCache.get(key(first))).isNotNull();
+        assertThat(smallCache.get(key(second))).isNull();
+        assertThat(smallCache.get(key(third))).isNotNull();
+    }
+
+    // ответ, полученный до изменения ресурса через gateway, в кэш не попадает
+    @Test
+    void responseRequestedBeforeInvalidationIsNotStored() {
+        createClients(LONG_TTL);
+        expectGet("/items/1").andRespond(invalidatingItems(item("v1", "drill")));
+        expectGet("/items/1").andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(item("v2", "hammer"));
+
+        itemClient.getItemById(1L, null);
+        ResponseEntity<Object> afterInvalidation = itemClient.getItemById(1L, null);
+
+        server.verify();
+        assertThat(body(afterInvalidation)).isEqualTo("hammer");
+    }
+
+    // 304 на перепроверку, полученный до изменения ресурса, не продлевает запись, а удаляет ее
+    @Test
+    void notModifiedAfterConcurrentInvalidationIsNotStored() {
+        createClients(Duration.ZERO);
+        expectGet("/items/1").andRespond(item("v1", "drill"));
+        expectGet("/items/1").andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(invalidatingItems(withStatus(HttpStatus.NOT_MODIFIED).headers(eTag("v1"))));
+        expectGet("/items/1").andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(item("v2", "hammer"));
+
+        itemClient.getItemById(1L, null);
+        ResponseEntity<Object> revalidated = itemClient.getItemById(1L, null);
+        ResponseEntity<Object> afterInvalidation = itemClient.getItemById(1L, null);
+
+        server.verify();
+        assertThat(body(revalidated)).isEqualTo("drill");
+        assertThat(body(afterInvalidation)).isEqualTo("hammer");
+    }
+
+    // ETag клиента без записи кэша проверяет сервер, со свежей записью - gateway; тело не передается
+    @Test
+    void clientETagIsAnsweredWithNotModified() {
+        createClients(LONG_TTL);
+        expectGet("/items/1").andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTag("v1")));
+        expectGet("/items/2").andRespond(item("v2", "hammer"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+            ResponseEntity<Object> fromServer = itemClient.getItemById(1L, null);
+            itemClient.getItemById(2L, null);
+            request.removeHeader(HttpHeaders.IF_NONE_MATCH);
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v2\"");
+            ResponseEntity<Object> fromCache = itemClient.getItemById(2L, null);
+
+            server.verify();
+            assertThat(fromServer.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+            assertThat(fromServer.getBody()).isNull();
+            assertThat(fromCache.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+            assertThat(fromCache.getBody()).isNull();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    // имя пользователя входит в комментарии вещей
+    @Test
+    void userChangeInvalidatesItems() {
+        assertInvalidates("/items/1", () -> itemClient.getItemById(1L, null),
+                HttpMethod.PATCH, "/users/1", () -> userClient.updateUser(1L, new UserDto()));
+    }
+
+    // бронирование меняет последнее и ближайшее бронирования вещи
+    @Test
+    void bookingChangeInvalidatesItems() {
+        assertInvalidates("/items/1", () -> itemClient.getItemById(1L, null),
+                HttpMethod.POST, "/bookings", () -> bookingClient.createBooking(2L, new BookingDto()));
+    }
+
+    // вещь, предложенная по запросу, входит в ответ запроса
+    @Test
+    void itemChangeInvalidatesRequests() {
+        assertInvalidates("/requests/1", () -> itemRequestClient.getRequestById(1L, 2L),
+                HttpMethod.POST, "/items", () -> itemClient.createItem(2L, new ItemDto()));
+    }
+
+    private void assertInvalidates(String readPath, Supplier<ResponseEntity<Object>> read,
+                                   HttpMethod writeMethod, String writePath, Runnable write) {
+        createClients(LONG_TTL);
+        expectGet(readPath).andRespond(item("v1", "before"));
+        server.expect(requestTo(SERVER_URL + writePath)).andExpect(method(writeMethod))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        expectGet(readPath).andRespond(item("v2", "after"));
+
+        read.get();
+        write.run();
+        ResponseEntity<Object> afterWrite = read.get();
+
+        server.verify();
+        assertThat(body(afterWrite)).isEqualTo("after");
+    }
+
+    // все клиенты используют общую фабрику запросов, как в ServerHttpClientConfig
+    private void createClients(Duration ttl) {
+        cache = new GatewayResponseCache(true, 100, ttl);
+        RestTemplate mockTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(mockTemplate).build();
+        ClientHttpRequestFactory requestFactory = mockTemplate.getRequestFactory();
+        RestTemplateBuilder builder = new RestTemplateBuilder();
+        itemClient = new ItemClient(SERVER_URL, builder, requestFactory, cache);
+        userClient = new UserClient(SERVER_URL, builder, requestFactory, cache);
+        bookingClient = new BookingClient(SERVER_URL, builder, requestFactory, cache);
+        itemRequestClient = new ItemRequestClient(SERVER_URL, builder, requestFactory, cache);
+    }
+
+    private ResponseActions expectGet(String path) {
+        return server.expect(requestTo(SERVER_URL + path)).andExpect(method(HttpMethod.GET));
+    }
+
+    // сервер отвечает после изменения ресурсов /items другим запросом через gateway
+    private ResponseCreator invalidatingItems(ResponseCreator response) {
+        return request -> {
+            cache.invalidate(SERVER_URL + "/items");
+            return response.createResponse(request);
+        };
+    }
+
+    private static ResponseCreator item(String version, String body) {
+        return withSuccess(body, MediaType.TEXT_PLAIN).headers(eTag(version));
+    }
+
+    private static HttpHeaders eTag(String version) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + version + "\"");
+        return headers;
+    }
+
+    private static String key(URI uri) {
+        return GatewayResponseCache.key(uri, null);
+    }
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+}
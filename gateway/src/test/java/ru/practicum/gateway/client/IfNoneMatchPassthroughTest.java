@@ -0,0 +1,76 @@
+package ru.practicum.gateway.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.practicum.gateway.booking.BookingClient;
+import ru.practicum.gateway.item.ItemClient;
+import ru.practicum.gateway.request.ItemRequestClient;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// If-None-Match клиента доходит через gateway до сервера, ответ 304 сервера возвращается клиенту без тела
+@SpringBootTest(properties = "shareit-server.url=http://shareit-server")
+@AutoConfigureMockMvc
+class IfNoneMatchPassthroughTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ItemClient itemClient;
+    @Autowired
+    private BookingClient bookingClient;
+    @Autowired
+    private ItemRequestClient itemRequestClient;
+
+    @Test
+    void itemIfNoneMatchReachesServer() throws Exception {
+        assertPassedThrough(itemClient, "/items/1", "\"item-3.1.7\"", get("/items/1"));
+    }
+
+    @Test
+    void bookingIfNoneMatchReachesServer() throws Exception {
+        assertPassedThrough(bookingClient, "/bookings/1", "\"booking-0.4\"",
+                get("/bookings/1").header(USER_HEADER, 2));
+    }
+
+    @Test
+    void requestIfNoneMatchReachesServer() throws Exception {
+        assertPassedThrough(itemRequestClient, "/requests/1", "\"request-0.2\"",
+                get("/requests/1").header(USER_HEADER, 2));
+    }
+
+    private void assertPassedThrough(BaseClient client, String path, String eTag,
+                                     MockHttpServletRequestBuilder request) throws Exception {
+        MockRestServiceServer server = MockRestServiceServer.bindTo(client.rest).build();
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setETag(eTag);
+        server.expect(requestTo("http://shareit-server" + path))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(serverHeaders));
+
+        mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        server.verify();
+    }
+}
@@ -15,12 +15,25 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @ToString
-@Table(name = "Bookings")
+@Table(name = "Bookings", indexes = {
+        // списки бронирований пользователя: WHERE booker_id ORDER BY start_time DESC, id DESC
+        @Index(name = "idx_bookings_booker_start", columnList = "booker_id, start_time DESC, id DESC"),
+        // списки владельца (через items.owner_id), проверки пересечений и последнее/ближайшее бронирование
+        @Index(name = "idx_bookings_item_start", columnList = "item_id, start_time DESC, id DESC")
+})
+// бронирование вместе с вещью и арендатором (проверка доступа и маппер читают оба)
+@NamedEntityGraph(name = Booking.WITH_ITEM_AND_BOOKER, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 @NoArgsConstructor
 public class Booking {
 
+    public static final String WITH_ITEM_AND_BOOKER = "Booking.withItemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_time", nullable = false)
@@ -48,6 +61,11 @@ public class Booking {
     @Column(name = "created_date", nullable = false, updatable = false)
     private LocalDateTime createdDate;
 
+    // версия для оптимистичной блокировки и ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     @PrePersist
     protected void onCreate() {
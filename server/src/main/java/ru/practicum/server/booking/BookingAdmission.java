@@ -0,0 +1,113 @@
+package ru.practicum.server.booking;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.exception.ConflictException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Допуск бронирований: сериализует только запросы к одной и той же вещи.
+ * <p>
+ * Проверка пересечений и вставка брони должны выполняться под блокировкой вещи,
+ * иначе два параллельных запроса могут оба пройти проверку. Блокировка берется внутри
+ * транзакции и снимается после ее завершения, поэтому следующий запрос видит
+ * уже зафиксированную бронь.
+ * <ul>
+ *     <li>LOCAL - блокировки с чередованием (lock striping) по id вещи внутри одного процесса;</li>
+ *     <li>ADVISORY - транзакционные advisory-блокировки PostgreSQL для нескольких экземпляров сервера.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BookingAdmission {
+
+    public enum Mode {
+        LOCAL, ADVISORY
+    }
+
+    private final EntityManager entityManager;
+    private final Mode mode;
+    private final long lockTimeoutMillis;
+    private final ReentrantLock[] stripes;
+
+    public BookingAdmission(EntityManager entityManager,
+                            @Value("${shareit.booking.admission.mode:LOCAL}") Mode mode,
+                            @Value("${shareit.booking.admission.stripes:64}") int stripes,
+                            @Value("${shareit.booking.admission.lock-timeout-ms:5000}") long lockTimeoutMillis) {
+        this.entityManager = entityManager;
+        this.mode = mode;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        log.info("Допуск бронирований: режим {}, полос блокировок {}", mode, this.stripes.length);
+    }
+
+    // блокировка на других узлах не видна локальным структурам (индекс интервалов)
+    public boolean isDistributed() {
+        return mode == Mode.ADVISORY;
+    }
+
+    // блокирует вещь до конца текущей транзакции
+    public void admit(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Допуск бронирования возможен только внутри транзакции");
+        }
+        if (mode == Mode.ADVISORY) {
+            entityManager.createNativeQuery("SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) l")
+                    .setParameter("key", itemId)
+                    .getSingleResult();
+            return;
+        }
+
+        ReentrantLock lock = stripeFor(itemId);
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Не удалось заблокировать вещь {} за {} мс", itemId, lockTimeoutMillis);
+                throw new ConflictException("Вещь бронируется другим запросом, повторите попытку");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Бронирование прервано");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    // блокирует несколько вещей в едином порядке (полосы по номеру, advisory по id),
+    // чтобы пересекающиеся пакеты не ждали друг друга по кругу
+    public void admitAll(Collection<Long> itemIds) {
+        if (mode == Mode.ADVISORY) {
+            itemIds.stream().distinct().sorted().forEach(this::admit);
+            return;
+        }
+        Map<Integer, Long> itemByStripe = new TreeMap<>();
+        for (Long itemId : itemIds) {
+            itemByStripe.putIfAbsent(stripeIndex(itemId), itemId);
+        }
+        itemByStripe.values().forEach(this::admit);
+    }
+
+    private ReentrantLock stripeFor(Long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private int stripeIndex(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
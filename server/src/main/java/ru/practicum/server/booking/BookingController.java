@@ -3,12 +3,17 @@ package ru.practicum.server.booking;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.dto.booking.BookingBatchResultDto;
 import ru.practicum.dto.booking.BookingDto;
 import ru.practicum.dto.booking.BookingResponseDto;
 import ru.practicum.dto.booking.BookingState;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/bookings")
@@ -33,6 +38,15 @@ public class BookingController {
         return result;
     }
 
+    // Пакетное создание бронирований: результат по каждому элементу, одна транзакция
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(
+            @RequestHeader("X-Sharer-User-Id") Long bookerId,
+            @RequestBody List<BookingDto> bookingDtos) {
+        log.info("POST /bookings/batch - Пакет из {} бронирований пользователя {}", bookingDtos.size(), bookerId);
+        return bookingService.createBookings(bookerId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto bookingStatusUpdate(@PathVariable Long bookingId,
                                                   @RequestParam Boolean approved,
@@ -44,10 +58,17 @@ public class BookingController {
         return result;
     }
 
+    // при совпадении If-None-Match - 304 без загрузки бронирования
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@PathVariable Long bookingId,
-                                             @RequestHeader("X-Sharer-User-Id") Long bookerId) {
+                                             @RequestHeader("X-Sharer-User-Id") Long bookerId,
+                                             WebRequest request) {
         log.info("GET /bookings/{} - Запрос на получение бронирования пользователем {}", bookingId, bookerId);
+        Optional<String> eTag = bookingService.getBookingETag(bookingId, bookerId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            log.info("GET /bookings/{} - Бронирование не изменилось", bookingId);
+            return null;
+        }
         BookingResponseDto result = bookingService.getBookingById(bookingId, bookerId);
         log.info("GET /bookings/{} - Бронирование получено: {}", bookingId, result);
         return result;
@@ -57,12 +78,17 @@ public class BookingController {
     public List<BookingResponseDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long bookerId,
                                                     @RequestParam(defaultValue = "ALL") String state,
                                                     @RequestParam(defaultValue = "0") int from,
-                                                    @RequestParam(defaultValue = "10") int size) {
-        log.info("GET /bookings - Запрос списка бронирований пользователя: userId={}, state={}, from={}, size={}",
-                bookerId, state, from, size);
+                                                    @RequestParam(defaultValue = "10") int size,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime cursorStart,
+                                                    @RequestParam(required = false) Long cursorId) {
+        log.info("GET /bookings - Запрос списка бронирований пользователя: userId={}, state={}, from={}, size={}, "
+                + "cursor=({}, {})", bookerId, state, from, size, cursorStart, cursorId);
         BookingState bookingState = BookingState.valueOf(state.toUpperCase());
 
-        List<BookingResponseDto> result = bookingService.getUserBookings(bookerId, bookingState, from, size);
+        List<BookingResponseDto> result = bookingService.getUserBookings(bookerId, bookingState, from, size,
+                cursorStart, cursorId);
         log.info("GET /bookings - Найдено {} бронирований для пользователя {}", result.size(), bookerId);
         return result;
     }
@@ -72,11 +98,14 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        log.info("GET /bookings/owner - Запрос списка бронирований владельца: ownerId={}, state={}, from={}, size={}",
-                userId, state, from, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) Long cursorId) {
+        log.info("GET /bookings/owner - Запрос списка бронирований владельца: ownerId={}, state={}, from={}, size={}, "
+                + "cursor=({}, {})", userId, state, from, size, cursorStart, cursorId);
         BookingState bookingState = BookingState.valueOf(state.toUpperCase());
-        List<BookingResponseDto> result = bookingService.getOwnerBookings(userId, bookingState, from, size);
+        List<BookingResponseDto> result = bookingService.getOwnerBookings(userId, bookingState, from, size,
+                cursorStart, cursorId);
         log.info("GET /bookings/owner - Найдено {} бронирований для владельца {}", result.size(), userId);
         return result;
     }
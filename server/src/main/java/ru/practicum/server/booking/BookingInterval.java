@@ -0,0 +1,15 @@
+package ru.practicum.server.booking;
+
+import java.time.LocalDateTime;
+
+// Интервал бронирования без загрузки сущности (для индекса интервалов)
+public record BookingInterval(Long bookingId, Long itemId, LocalDateTime start, LocalDateTime end) {
+
+    public static BookingInterval of(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.server.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс интервалов активных бронирований (WAITING и APPROVED) по вещам.
+ * <p>
+ * Активные бронирования одной вещи не пересекаются, поэтому внутри вещи интервалы
+ * упорядочены одновременно по началу и по окончанию. Для проверки пересечения достаточно
+ * взять интервал с наибольшим началом раньше окончания нового - это O(log n) без запроса в БД.
+ * <p>
+ * Если для вещи обнаружено пересечение уже сохраненных интервалов (данные вне индекса,
+ * гонка при создании), вещь помечается как ненадежная и проверяется через БД. resyncDegraded
+ * периодически перечитывает интервалы таких вещей из БД и возвращает проверку в индекс,
+ * если перечитанные интервалы не пересекаются.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+
+    private final Map<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.overlap-index.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+    }
+
+    // прогрев индекса из таблицы бронирований до начала обработки запросов
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Индекс интервалов бронирований отключен, пересечения проверяются через БД");
+            return;
+        }
+        int count = 0;
+        for (BookingInterval interval : bookingRepository.findActiveIntervals(LocalDateTime.now())) {
+            add(interval);
+            count++;
+        }
+        log.info("Индекс интервалов бронирований прогрет: {} интервалов, {} вещей", count, intervalsByItem.size());
+    }
+
+    // может ли индекс ответить на вопрос о пересечении для вещи без обращения к БД
+    public boolean canAnswer(Long itemId) {
+        if (!enabled) {
+            return false;
+        }
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        return intervals == null || !intervals.degraded;
+    }
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, BookingInterval> candidate = intervals.byStart.lowerEntry(end);
+        return candidate != null && candidate.getValue().overlaps(start, end);
+    }
+
+    // новое бронирование попадает в индекс только после фиксации транзакции
+    public void onCreated(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingInterval interval = BookingInterval.of(booking);
+        afterCommit(() -> add(interval));
+    }
+
+    // подтверждение оставляет интервал активным, отклонение освобождает его
+    public void onStatusChanged(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingInterval interval = BookingInterval.of(booking);
+        if (booking.getStatus() == BookingStatus.REJECTED || booking.getStatus() == BookingStatus.CANCELED) {
+            afterCommit(() -> remove(interval));
+        } else {
+            afterCommit(() -> add(interval));
+        }
+    }
+
+    // Перечитывание вещей, помеченных как ненадежные: при согласованных интервалах проверки снова идут через индекс
+    @Scheduled(fixedDelayString = "${shareit.booking.overlap-index.resync-interval:PT1M}",
+            initialDelayString = "${shareit.booking.overlap-index.resync-interval:PT1M}")
+    public void resyncDegraded() {
+        if (!enabled) {
+            return;
+        }
+        intervalsByItem.forEach((itemId, intervals) -> {
+            if (intervals.degraded) {
+                reload(itemId, intervals);
+            }
+        });
+    }
+
+    // Интервалы вещи заменяются прочитанными из БД. Блокировка берется до запроса: изменения, зафиксированные
+    // до него, уже в выборке (повторное добавление ничего не меняет), остальные применятся после замены
+    private void reload(Long itemId, ItemIntervals intervals) {
+        intervals.lock.lock();
+        try {
+            List<BookingInterval> loaded = bookingRepository.findActiveIntervals(List.of(itemId), LocalDateTime.now());
+            intervals.byStart.clear();
+            BookingInterval previous = null;
+            boolean consistent = true;
+            for (BookingInterval interval : loaded) {
+                if (previous != null && previous.overlaps(interval.start(), interval.end())) {
+                    consistent = false;
+                }
+                intervals.byStart.put(interval.start(), interval);
+                previous = interval;
+            }
+            intervals.degraded = !consistent;
+            if (consistent) {
+                log.info("Интервалы вещи {} перечитаны из БД ({}), проверки снова через индекс", itemId, loaded.size());
+            } else {
+                log.warn("Активные бронирования вещи {} пересекаются в БД, проверки остаются в БД", itemId);
+            }
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    private void add(BookingInterval interval) {
+        ItemIntervals intervals = intervalsByItem.computeIfAbsent(interval.itemId(), id -> new ItemIntervals());
+        intervals.lock.lock();
+        try {
+            intervals.pruneExpired(LocalDateTime.now());
+
+            BookingInterval existing = intervals.byStart.get(interval.start());
+            if (existing != null && existing.bookingId().equals(interval.bookingId())) {
+                return;
+            }
+            if (existing != null || hasOverlap(interval.itemId(), interval.start(), interval.end())) {
+                log.warn("Пересечение активных бронирований вещи {} (бронь {}), проверки переключены на БД",
+                        interval.itemId(), interval.bookingId());
+                intervals.degraded = true;
+            }
+            intervals.byStart.put(interval.start(), interval);
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    private void remove(BookingInterval interval) {
+        ItemIntervals intervals = intervalsByItem.get(interval.itemId());
+        if (intervals == null) {
+            return;
+        }
+        intervals.lock.lock();
+        try {
+            BookingInterval current = intervals.byStart.get(interval.start());
+            if (current != null && current.bookingId().equals(interval.bookingId())) {
+                intervals.byStart.remove(interval.start(), current);
+            }
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class ItemIntervals {
+        private final ConcurrentNavigableMap<LocalDateTime, BookingInterval> byStart = new ConcurrentSkipListMap<>();
+        // изменения интервалов вещи и перечитывание из БД (ReentrantLock: без закрепления виртуальных потоков)
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean degraded;
+
+        // завершившиеся интервалы не могут пересечься с новым бронированием (начало только в будущем)
+        private void pruneExpired(LocalDateTime now) {
+            for (Map.Entry<LocalDateTime, BookingInterval> entry : byStart.entrySet()) {
+                if (entry.getValue().end().isAfter(now)) {
+                    break;
+                }
+                byStart.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ public interface BookingMapper {
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Booking toBooking(BookingDto bookingDto);
 
     @Mapping(source = "createdDate", target = "created")
@@ -1,58 +1,85 @@
 package ru.practicum.server.booking;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.common.ResourceVersion;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
 
-    // Поиск всех бронирований пользователя с пагинацией
-    List<Booking> findByBookerId(Long bookerId, Pageable pageable);
+    // версия бронирования для ETag: сама бронь, вещь и бронирующий; только для бронирующего и владельца
+    @Query("SELECT new ru.practicum.server.common.ResourceVersion(b.version, i.version + u.version) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE b.id = :bookingId AND (u.id = :userId OR i.owner.id = :userId)")
+    Optional<ResourceVersion> findVersionByIdAndParticipant(@Param("bookingId") Long bookingId,
+                                                            @Param("userId") Long userId);
 
-    // Поиск будущих бронирований пользователя (начало после указанной даты)
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start, Pageable pageable);
+    // Бронирование с вещью и арендатором одним запросом (просмотр и подтверждение брони)
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
 
-    // Поиск завершенных бронирований пользователя (окончание до указанной даты)
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end, Pageable pageable);
-
-    // Поиск текущих бронирований пользователя (началось до указанной даты и закончится после)
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start,
-                                                          LocalDateTime end, Pageable pageable);
-
-    // Поиск бронирований пользователя по статусу
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
-
-    // Поиск всех бронирований вещей владельца с пагинацией
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
-
-    // Поиск будущих бронирований вещей владельца
-    List<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime start, Pageable pageable);
+    // Проверка, брал ли пользователь вещь в аренду в прошлом (проверка комментов)
+    boolean existsByBookerIdAndItemIdAndEndBefore(Long userId, Long itemId, LocalDateTime time);
 
-    // Поиск завершенных бронирований вещей владельца
-    List<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime end, Pageable pageable);
+    // Активные интервалы нескольких вещей, пересекающие окно [from, to) (проверка пакета одним запросом)
+    @Query("SELECT new ru.practicum.server.booking.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status IN ('APPROVED', 'WAITING') " +
+            "AND b.start < :to AND b.end > :from")
+    List<BookingInterval> findActiveIntervals(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
 
-    // Поиск текущих бронирований вещей владельца
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start,
-                                                             LocalDateTime end, Pageable pageable);
+    // Проверка пересечения интервалов с активными бронированиями вещи (резервный путь для индекса интервалов)
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
 
-    // Поиск бронирований вещей владельца по статусу
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
+    // Интервалы активных бронирований, которые еще не закончились (прогрев индекса интервалов)
+    @Query("SELECT new ru.practicum.server.booking.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status IN ('APPROVED', 'WAITING') " +
+            "AND b.end > :now")
+    List<BookingInterval> findActiveIntervals(@Param("now") LocalDateTime now);
 
-    // Проверка, брал ли пользователь вещь в аренду в прошлом (проверка комментов)
-    boolean existsByBookerIdAndItemIdAndEndBefore(Long userId, Long itemId, LocalDateTime time);
+    // Незакончившиеся активные интервалы вещей из списка по началу (перечитывание вещей в индексе интервалов)
+    @Query("SELECT new ru.practicum.server.booking.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status IN ('APPROVED', 'WAITING') " +
+            "AND b.end > :now " +
+            "ORDER BY b.start, b.id")
+    List<BookingInterval> findActiveIntervals(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("now") LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status IN ('APPROVED', 'WAITING') " + // проверяем только активные бронирования
-            "AND (b.start < :end AND b.end > :start)")
-        // проверяем пересечение интервалов
-    List<Booking> findOverlappingBookings(
-            @Param("itemId") Long itemId,
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end);
+    // Последнее и ближайшее подтвержденные бронирования для каждой вещи из списка одним запросом
+    @Query(value = """
+            SELECT w.item_id AS itemId, w.start_time AS startTime, w.end_time AS endTime, w.kind AS kind
+            FROM (
+                SELECT b.item_id, b.start_time, b.end_time, 'LAST' AS kind,
+                       ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_time DESC) AS rn
+                FROM bookings b
+                WHERE b.item_id IN (:itemIds)
+                AND b.status = 'APPROVED'
+                AND b.start_time < :now
+                UNION ALL
+                SELECT b.item_id, b.start_time, b.end_time, 'NEXT' AS kind,
+                       ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_time ASC) AS rn
+                FROM bookings b
+                WHERE b.item_id IN (:itemIds)
+                AND b.status = 'APPROVED'
+                AND b.start_time > :now
+            ) w
+            WHERE w.rn = 1
+            """, nativeQuery = true)
+    List<ItemBookingWindow> findLastAndNextApprovedBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                            @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,21 +1,33 @@
 package ru.practicum.server.booking;
 
+import ru.practicum.dto.booking.BookingBatchResultDto;
 import ru.practicum.dto.booking.BookingDto;
 import ru.practicum.dto.booking.BookingResponseDto;
 import ru.practicum.dto.booking.BookingState;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
 
     BookingResponseDto createBooking(Long bookerId, BookingDto bookingDto);
 
+    // пакетное создание: результат по каждому элементу в порядке входного списка
+    List<BookingBatchResultDto> createBookings(Long bookerId, List<BookingDto> bookingDtos);
+
     BookingResponseDto bookingStatusUpdate(Long bookingId, Boolean approved, Long bookerId);
 
     BookingResponseDto getBookingById(Long bookingId, Long bookerId);
 
-    List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, int from, int size);
+    // ETag бронирования; пусто, если брони нет или пользователь не бронирующий и не владелец
+    Optional<String> getBookingETag(Long bookingId, Long userId);
+
+    // cursorStart/cursorId - последняя полученная строка (keyset), иначе смещение from
+    List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, int from, int size,
+                                             LocalDateTime cursorStart, Long cursorId);
 
-    List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size);
+    List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size,
+                                              LocalDateTime cursorStart, Long cursorId);
 
 }
\ No newline at end of file
@@ -2,25 +2,40 @@ package ru.practicum.server.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.booking.BookingBatchResultDto;
 import ru.practicum.dto.booking.BookingDto;
 import ru.practicum.dto.booking.BookingResponseDto;
 import ru.practicum.dto.booking.BookingState;
 import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.event.DomainEventOutbox;
+import ru.practicum.server.event.DomainEventType;
 import ru.practicum.server.exception.AccessDeniedException;
+import ru.practicum.server.exception.ConflictException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
 import ru.practicum.server.item.Item;
 import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.item.ItemViewProjector;
 import ru.practicum.server.user.User;
 import ru.practicum.server.user.UserRepository;
+import ru.practicum.server.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,10 +44,21 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    // статусы, которые занимают вещь на период бронирования
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final BookingMapper bookingMapper;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingAdmission bookingAdmission;
+    private final ItemViewProjector itemViewProjector;
+    private final DomainEventOutbox domainEventOutbox;
+
+    @Value("${shareit.booking.batch.max-size:500}")
+    private int batchMaxSize;
 
     @Override
     @Transactional
@@ -61,51 +87,17 @@ public class BookingServiceImpl implements BookingService {
             log.info("✅ Вещь найдена: id={}, name={}, ownerId={}, available={}",
                     item.getId(), item.getName(), item.getOwner().getId(), item.getAvailable());
 
-            //Проверяем, что пользователь не владелец
-            if (item.getOwner().getId().equals(bookerId)) {
-                log.error("Владелец пытается забронировать свою вещь: ownerId={}, bookerId={}",
-                        item.getOwner().getId(), bookerId);
-                throw new AccessDeniedException("Владелец не может бронировать свою вещь");
-            }
-
-            //Проверяем доступность вещи
-            if (!item.getAvailable()) {
-                log.error("Вещь недоступна для бронирования: itemId={}, available={}",
-                        item.getId(), item.getAvailable());
-                throw new ValidationException("Вещь недоступна для бронирования");
-            }
-
-            //Валидация дат
             LocalDateTime now = LocalDateTime.now();
-            log.debug("Текущее время: {}", now);
-            log.debug("Дата начала бронирования: {}", bookingDto.getStart());
-            log.debug("Дата окончания бронирования: {}", bookingDto.getEnd());
-
-            if (bookingDto.getStart().isAfter(bookingDto.getEnd())) {
-                log.error("Дата начала позже даты окончания: start={}, end={}",
-                        bookingDto.getStart(), bookingDto.getEnd());
-                throw new ValidationException("Дата начала должна быть раньше даты окончания");
-            }
+            checkBookable(bookerId, item, bookingDto, now);
 
-            if (bookingDto.getStart().isBefore(now)) {
-                log.error("Дата начала в прошлом: start={}, now={}", bookingDto.getStart(), now);
-                throw new ValidationException("Дата начала должна быть в будущем");
-            }
-
-            if (bookingDto.getEnd().isBefore(now)) {
-                log.error("Дата окончания в прошлом: end={}, now={}", bookingDto.getEnd(), now);
-                throw new ValidationException("Дата окончания должна быть в будущем");
-            }
+            //Блокируем вещь до конца транзакции: проверка пересечений и вставка не разрываются
+            bookingAdmission.admit(item.getId());
 
             //Проверяем, нет ли конфликтующих бронирований
             log.debug("Проверка конфликтующих бронирований для itemId={}", item.getId());
-            List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
-                    item.getId(), bookingDto.getStart(), bookingDto.getEnd());
-
-            if (!overlappingBookings.isEmpty()) {
-                log.error("Найдены конфликтующие бронирования: count={}", overlappingBookings.size());
-                overlappingBookings.forEach(b -> log.debug("Конфликтующее бронирование: id={}, start={}, end={}",
-                        b.getId(), b.getStart(), b.getEnd()));
+            if (hasOverlappingBookings(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+                log.error("Найдены конфликтующие бронирования: itemId={}, start={}, end={}",
+                        item.getId(), bookingDto.getStart(), bookingDto.getEnd());
                 throw new ValidationException("На выбранные даты уже есть бронирование");
             }
 
@@ -119,6 +111,8 @@ public class BookingServiceImpl implements BookingService {
 
             log.info("Сохранение бронирования в БД...");
             Booking savedBooking = bookingRepository.save(booking);
+            bookingIntervalIndex.onCreated(savedBooking);
+            appendCreatedEvent(savedBooking);
 
             log.info("Бронирование успешно создано: id={}, itemId={}, bookerId={}, status={}",
                     savedBooking.getId(), savedBooking.getItem().getId(),
@@ -129,7 +123,7 @@ public class BookingServiceImpl implements BookingService {
 
             return response;
 
-        } catch (NotFoundException | ValidationException | AccessDeniedException e) {
+        } catch (NotFoundException | ValidationException | AccessDeniedException | ConflictException e) {
             // Логируем известные исключения
             log.error("Известное исключение при создании бронирования: {}", e.getMessage());
             throw e;
@@ -170,6 +164,14 @@ public class BookingServiceImpl implements BookingService {
 
             log.info("Сохранение обновленного бронирования...");
             Booking updatedBooking = bookingRepository.save(booking);
+            bookingIntervalIndex.onStatusChanged(updatedBooking);
+            if (newStatus == BookingStatus.APPROVED) {
+                itemViewProjector.onBookingApproved(updatedBooking.getItem().getId());
+            }
+            domainEventOutbox.append(approved ? DomainEventType.BOOKING_APPROVED : DomainEventType.BOOKING_REJECTED,
+                    updatedBooking.getId(),
+                    "itemId", updatedBooking.getItem().getId(),
+                    "bookerId", updatedBooking.getBooker().getId());
 
             log.info("Статус бронирования обновлен: id={}, newStatus={}",
                     updatedBooking.getId(), updatedBooking.getStatus());
@@ -212,48 +214,25 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, int from, int size) {
+    public Optional<String> getBookingETag(Long bookingId, Long userId) {
+        return bookingRepository.findVersionByIdAndParticipant(bookingId, userId)
+                .map(version -> version.toETag("booking"));
+    }
+
+    @Override
+    public List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, int from, int size,
+                                                    LocalDateTime cursorStart, Long cursorId) {
         log.info("ПОЛУЧЕНИЕ БРОНИРОВАНИЙ ПОЛЬЗОВАТЕЛЯ");
-        log.info("bookerId: {}, state: {}, from: {}, size: {}", bookerId, state, from, size);
+        log.info("bookerId: {}, state: {}, from: {}, size: {}, cursor: ({}, {})",
+                bookerId, state, from, size, cursorStart, cursorId);
 
         try {
-            // Проверяем существование пользователя
-            userRepository.findById(bookerId)
-                    .orElseThrow(() -> {
-                        log.error("Пользователь не найден: bookerId={}", bookerId);
-                        return new NotFoundException("Пользователь не найден");
-                    });
-
-            Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-            LocalDateTime now = LocalDateTime.now();
-            List<Booking> bookings;
+            // Проверяем существование пользователя (без загрузки сущности)
+            userService.checkUserExists(bookerId);
 
             log.debug("Фильтрация по состоянию: {}", state);
-            switch (state) {
-                case CURRENT:
-                    log.debug("Поиск текущих бронирований");
-                    bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, pageable);
-                    break;
-                case PAST:
-                    log.debug("Поиск завершенных бронирований");
-                    bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, now, pageable);
-                    break;
-                case FUTURE:
-                    log.debug("Поиск будущих бронирований");
-                    bookings = bookingRepository.findByBookerIdAndStartAfter(bookerId, now, pageable);
-                    break;
-                case WAITING:
-                    log.debug("Поиск ожидающих бронирований");
-                    bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, pageable);
-                    break;
-                case REJECTED:
-                    log.debug("Поиск отклоненных бронирований");
-                    bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, pageable);
-                    break;
-                default: // "ALL"
-                    log.debug("Поиск всех бронирований");
-                    bookings = bookingRepository.findByBookerId(bookerId, pageable);
-            }
+            List<Booking> bookings = findPage(BookingSpecifications.bookerIs(bookerId), state, from, size,
+                    cursorStart, cursorId);
 
             log.info("Найдено {} бронирований для пользователя {}", bookings.size(), bookerId);
             return bookings.stream()
@@ -267,42 +246,19 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size) {
+    public List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size,
+                                                     LocalDateTime cursorStart, Long cursorId) {
         log.info("ПОЛУЧЕНИЕ БРОНИРОВАНИЙ ВЛАДЕЛЬЦА");
-        log.info("ownerId: {}, state: {}, from: {}, size: {}", ownerId, state, from, size);
+        log.info("ownerId: {}, state: {}, from: {}, size: {}, cursor: ({}, {})",
+                ownerId, state, from, size, cursorStart, cursorId);
 
         try {
-            // Проверяем существование пользователя
-            userRepository.findById(ownerId)
-                    .orElseThrow(() -> {
-                        log.error("Владелец не найден: ownerId={}", ownerId);
-                        return new NotFoundException("Пользователь не найден");
-                    });
-
-            Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-            LocalDateTime now = LocalDateTime.now();
-            List<Booking> bookings;
+            // Проверяем существование пользователя (без загрузки сущности)
+            userService.checkUserExists(ownerId);
 
             log.debug("Фильтрация по состоянию: {}", state);
-            switch (state) {
-                case CURRENT:
-                    bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(ownerId, now, now, pageable);
-                    break;
-                case PAST:
-                    bookings = bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, pageable);
-                    break;
-                case FUTURE:
-                    bookings = bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, pageable);
-                    break;
-                case WAITING:
-                    bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
-                    break;
-                case REJECTED:
-                    bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
-                    break;
-                default: // "ALL"
-                    bookings = bookingRepository.findByItemOwnerId(ownerId, pageable);
-            }
+            List<Booking> bookings = findPage(BookingSpecifications.itemOwnerIs(ownerId), state, from, size,
+                    cursorStart, cursorId);
 
             log.info("Найдено {} бронирований для владельца {}", bookings.size(), ownerId);
             return bookings.stream()
@@ -315,10 +271,203 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    // Курсор (start, id) задается целиком или не задается вовсе
+    private boolean isCursorPage(LocalDateTime cursorStart, Long cursorId) {
+        if ((cursorStart == null) != (cursorId == null)) {
+            log.error("Неполный курсор: cursorStart={}, cursorId={}", cursorStart, cursorId);
+            throw new ValidationException("Курсор задается парой параметров cursorStart и cursorId");
+        }
+        return cursorStart != null;
+    }
+
+    // Страница бронирований одним запросом: условие состояния в WHERE, вещь и арендатор через fetch join.
+    // С курсором (start, id) - keyset без OFFSET, иначе смещение from
+    private List<Booking> findPage(Specification<Booking> role, BookingState state, int from, int size,
+                                   LocalDateTime cursorStart, Long cursorId) {
+        Specification<Booking> specification = role
+                .and(BookingSpecifications.inState(state, LocalDateTime.now()))
+                .and(BookingSpecifications.fetchItemAndBooker());
+
+        if (isCursorPage(cursorStart, cursorId)) {
+            log.debug("Keyset-страница после ({}, {})", cursorStart, cursorId);
+            return bookingRepository.findBy(specification.and(BookingSpecifications.after(cursorStart, cursorId)),
+                    query -> query.sortBy(BookingSpecifications.NEWEST_FIRST).limit(size).all());
+        }
+        // scroll не выполняет запрос количества, в отличие от page()
+        ScrollPosition position = from == 0 ? ScrollPosition.offset() : ScrollPosition.offset(from - 1);
+        return bookingRepository.findBy(specification,
+                query -> query.sortBy(BookingSpecifications.NEWEST_FIRST).limit(size).scroll(position))
+                .getContent();
+    }
+
+    // Пакетное создание: общие выборки пользователя, вещей и пересечений, вставка пачками JDBC
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(Long bookerId, List<BookingDto> bookingDtos) {
+        log.info("Пакетное создание бронирований: bookerId={}, количество={}", bookerId, bookingDtos.size());
+        if (bookingDtos.isEmpty() || bookingDtos.size() > batchMaxSize) {
+            throw new ValidationException("В пакете должно быть от 1 до " + batchMaxSize + " бронирований");
+        }
+
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        LocalDateTime now = LocalDateTime.now();
+
+        Set<Long> itemIds = bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            try {
+                if (bookingDto == null) {
+                    throw new ValidationException("Элемент пакета не может быть пустым");
+                }
+                if (bookingDto.getItemId() == null) {
+                    throw new ValidationException("ID вещи обязателен");
+                }
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь не найдена");
+                }
+                checkBookable(bookerId, item, bookingDto, now);
+                candidates.add(i);
+            } catch (NotFoundException | ValidationException | AccessDeniedException e) {
+                results[i] = failed(i, e);
+            }
+        }
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Integer> bookingIndexes = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            Set<Long> candidateItemIds = candidates.stream()
+                    .map(i -> bookingDtos.get(i).getItemId())
+                    .collect(Collectors.toSet());
+            bookingAdmission.admitAll(candidateItemIds);
+
+            // одна выборка занятых интервалов всех вещей пакета в общем окне дат
+            LocalDateTime from = candidates.stream().map(i -> bookingDtos.get(i).getStart())
+                    .min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime to = candidates.stream().map(i -> bookingDtos.get(i).getEnd())
+                    .max(Comparator.naturalOrder()).orElseThrow();
+            Map<Long, List<BookingInterval>> occupied = bookingRepository
+                    .findActiveIntervals(candidateItemIds, from, to).stream()
+                    .collect(Collectors.groupingBy(BookingInterval::itemId, Collectors.toCollection(ArrayList::new)));
+
+            for (int i : candidates) {
+                BookingDto bookingDto = bookingDtos.get(i);
+                List<BookingInterval> itemIntervals = occupied.computeIfAbsent(bookingDto.getItemId(),
+                        id -> new ArrayList<>());
+                // пересечение с сохраненными бронированиями и с уже принятыми элементами этого пакета
+                if (itemIntervals.stream().anyMatch(interval ->
+                        interval.overlaps(bookingDto.getStart(), bookingDto.getEnd()))) {
+                    results[i] = BookingBatchResultDto.failed(i, HttpStatus.BAD_REQUEST.value(),
+                            "На выбранные даты уже есть бронирование");
+                    continue;
+                }
+                itemIntervals.add(new BookingInterval(null, bookingDto.getItemId(),
+                        bookingDto.getStart(), bookingDto.getEnd()));
+
+                Booking booking = bookingMapper.toBooking(bookingDto);
+                booking.setItem(items.get(bookingDto.getItemId()));
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                booking.setCreatedDate(now);
+                bookings.add(booking);
+                bookingIndexes.add(i);
+            }
+        }
+
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        for (int k = 0; k < savedBookings.size(); k++) {
+            Booking savedBooking = savedBookings.get(k);
+            int index = bookingIndexes.get(k);
+            bookingIntervalIndex.onCreated(savedBooking);
+            appendCreatedEvent(savedBooking);
+            results[index] = BookingBatchResultDto.created(index, bookingMapper.toBookingResponseDto(savedBooking));
+        }
+        log.info("Пакет бронирований пользователя {}: создано {} из {}", bookerId, savedBookings.size(),
+                bookingDtos.size());
+        return Arrays.asList(results);
+    }
+
+    private void appendCreatedEvent(Booking booking) {
+        domainEventOutbox.append(DomainEventType.BOOKING_CREATED, booking.getId(),
+                "itemId", booking.getItem().getId(),
+                "bookerId", booking.getBooker().getId(),
+                "start", booking.getStart(),
+                "end", booking.getEnd());
+    }
+
+    // Проверки бронирования, не зависящие от других бронирований вещи
+    private void checkBookable(Long bookerId, Item item, BookingDto bookingDto, LocalDateTime now) {
+        //Проверяем, что пользователь не владелец
+        if (item.getOwner().getId().equals(bookerId)) {
+            log.error("Владелец пытается забронировать свою вещь: ownerId={}, bookerId={}",
+                    item.getOwner().getId(), bookerId);
+            throw new AccessDeniedException("Владелец не может бронировать свою вещь");
+        }
+
+        //Проверяем доступность вещи
+        if (!item.getAvailable()) {
+            log.error("Вещь недоступна для бронирования: itemId={}, available={}",
+                    item.getId(), item.getAvailable());
+            throw new ValidationException("Вещь недоступна для бронирования");
+        }
+
+        //Валидация дат
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new ValidationException("Даты начала и окончания бронирования должны быть указаны");
+        }
+        log.debug("Текущее время: {}", now);
+        log.debug("Дата начала бронирования: {}", bookingDto.getStart());
+        log.debug("Дата окончания бронирования: {}", bookingDto.getEnd());
+
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            log.error("Дата окончания не позже даты начала: start={}, end={}",
+                    bookingDto.getStart(), bookingDto.getEnd());
+            throw new ValidationException("Дата начала должна быть раньше даты окончания");
+        }
+
+        if (bookingDto.getStart().isBefore(now)) {
+            log.error("Дата начала в прошлом: start={}, now={}", bookingDto.getStart(), now);
+            throw new ValidationException("Дата начала должна быть в будущем");
+        }
+
+        if (bookingDto.getEnd().isBefore(now)) {
+            log.error("Дата окончания в прошлом: end={}, now={}", bookingDto.getEnd(), now);
+            throw new ValidationException("Дата окончания должна быть в будущем");
+        }
+    }
+
+    private static BookingBatchResultDto failed(int index, RuntimeException e) {
+        HttpStatus status = e instanceof NotFoundException ? HttpStatus.NOT_FOUND
+                : e instanceof AccessDeniedException ? HttpStatus.FORBIDDEN
+                : HttpStatus.BAD_REQUEST;
+        return BookingBatchResultDto.failed(index, status.value(), e.getMessage());
+    }
+
+    // Проверка пересечения: индекс интервалов в памяти, БД - если индекс не может ответить
+    // или брони создаются несколькими узлами (локальный индекс не видит чужих вставок)
+    private boolean hasOverlappingBookings(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!bookingAdmission.isDistributed() && bookingIntervalIndex.canAnswer(itemId)) {
+            return bookingIntervalIndex.hasOverlap(itemId, start, end);
+        }
+        log.debug("Индекс интервалов не может ответить для вещи {}, проверка через БД", itemId);
+        return bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                itemId, ACTIVE_STATUSES, end, start);
+    }
+
     // Вспомогательный метод для поиска бронирования
     public Booking findById(Long bookingId) {
         log.debug("Поиск бронирования по id: {}", bookingId);
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> {
                     log.error("Бронь не найдена: bookingId={}", bookingId);
                     return new NotFoundException("Бронь не найдена");
@@ -0,0 +1,55 @@
+package ru.practicum.server.booking;
+
+import jakarta.persistence.criteria.JoinType;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.booking.BookingState;
+import ru.practicum.dto.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Условия выборки бронирований для списков пользователя и владельца
+@UtilityClass
+public class BookingSpecifications {
+
+    // порядок списков: сначала поздние, при равном начале - по убыванию id (ключ курсора)
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    public static Specification<Booking> bookerIs(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> itemOwnerIs(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("item").get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        return (root, query, cb) -> switch (state) {
+            case CURRENT -> cb.and(cb.lessThan(root.get("start"), now), cb.greaterThan(root.get("end"), now));
+            case PAST -> cb.lessThan(root.get("end"), now);
+            case FUTURE -> cb.greaterThan(root.get("start"), now);
+            case WAITING -> cb.equal(root.get("status"), BookingStatus.WAITING);
+            case REJECTED -> cb.equal(root.get("status"), BookingStatus.REJECTED);
+            case ALL -> cb.conjunction();
+        };
+    }
+
+    // вещь и арендатор загружаются тем же запросом (маппер читает оба), для запроса количества - без fetch
+    public static Specification<Booking> fetchItemAndBooker() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("item", JoinType.INNER);
+                root.fetch("booker", JoinType.INNER);
+            }
+            return cb.conjunction();
+        };
+    }
+
+    // keyset: строки строго после курсора (start, id) в порядке NEWEST_FIRST
+    public static Specification<Booking> after(LocalDateTime cursorStart, Long cursorId) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), cursorStart),
+                cb.and(cb.equal(root.get("start"), cursorStart), cb.lessThan(root.get("id"), cursorId)));
+    }
+}
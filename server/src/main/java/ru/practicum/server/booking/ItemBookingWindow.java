@@ -0,0 +1,18 @@
+package ru.practicum.server.booking;
+
+import java.time.LocalDateTime;
+
+// Строка оконного запроса: последнее (LAST) или ближайшее (NEXT) подтвержденное бронирование вещи
+public interface ItemBookingWindow {
+
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    Long getItemId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    String getKind();
+}
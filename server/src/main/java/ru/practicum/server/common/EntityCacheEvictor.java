@@ -0,0 +1,42 @@
+package ru.practicum.server.common;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Явное вытеснение сущностей из кэша второго уровня Hibernate.
+ * <p>
+ * READ_WRITE-регионы сами обновляются при изменениях через сессию, но изменения в обход
+ * сессии (удаление запросом, правка в БД другим узлом) кэш не видит. Поэтому изменяющие
+ * операции сервисов дополнительно вытесняют запись после фиксации транзакции:
+ * до фиксации параллельный запрос мог бы снова положить в кэш старое состояние.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictAfterCommit(Class<?> entityType, Object id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(entityType, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(entityType, id);
+            }
+        });
+    }
+
+    private void evict(Class<?> entityType, Object id) {
+        entityManagerFactory.getCache().evict(entityType, id);
+        log.debug("Из кэша второго уровня вытеснено: {}#{}", entityType.getSimpleName(), id);
+    }
+}
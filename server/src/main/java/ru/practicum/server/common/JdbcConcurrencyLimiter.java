@@ -0,0 +1,133 @@
+package ru.practicum.server.common;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение числа одновременно открытых соединений с БД (shareit.jdbc.max-concurrency > 0).
+ * <p>
+ * На виртуальных потоках число одновременных запросов не ограничено пулом потоков Tomcat,
+ * и при медленной БД тысячи потоков одновременно ждут соединение в HikariCP. Честный семафор
+ * с числом разрешений не больше размера пула ставит их в очередь заранее: соединение выдается
+ * в порядке прихода, а ожидание дольше acquire-timeout завершается ошибкой получения соединения,
+ * как и таймаут самого пула. Разрешение возвращается при закрытии соединения.
+ * Очередь видна в метриках shareit.jdbc.limiter.*.
+ */
+@Slf4j
+@Component
+public class JdbcConcurrencyLimiter implements BeanPostProcessor, MeterBinder {
+
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private final Semaphore permits;
+
+    public JdbcConcurrencyLimiter(@Value("${shareit.jdbc.max-concurrency:0}") int maxConcurrency,
+                                  @Value("${shareit.jdbc.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(Math.max(maxConcurrency, 0), true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (maxConcurrency <= 0 || !(bean instanceof DataSource dataSource)
+                || bean instanceof LimitedDataSource) {
+            return bean;
+        }
+        log.info("Ограничение одновременных соединений с БД ({}): {}, ожидание до {} мс", beanName,
+                maxConcurrency, TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos));
+        return new LimitedDataSource(dataSource);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (maxConcurrency <= 0) {
+            return;
+        }
+        Gauge.builder("shareit.jdbc.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Потоки, ожидающие разрешения на соединение с БД")
+                .register(registry);
+        Gauge.builder("shareit.jdbc.limiter.available", permits, Semaphore::availablePermits)
+                .description("Свободные разрешения на соединение с БД")
+                .register(registry);
+    }
+
+    private Connection acquire(ConnectionSource source) throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Нет свободного соединения с БД за "
+                        + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " мс, в очереди "
+                        + permits.getQueueLength());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+        }
+        try {
+            return releasingOnClose(source.get());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // разрешение возвращается один раз, даже если соединение закрывают повторно
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private class LimitedDataSource extends DelegatingDataSource {
+
+        LimitedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return acquire(() -> obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return acquire(() -> obtainTargetDataSource().getConnection(username, password));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.server.common;
+
+/**
+ * Версии, от которых зависит тело ответа на чтение ресурса: собственная версия агрегата
+ * и монотонный счетчик связанных сущностей, попадающих в ответ (сумма их версий, число комментариев).
+ * <p>
+ * Оба значения только растут, поэтому любое изменение агрегата или связанных сущностей меняет пару.
+ * Выбирается скалярным запросом без загрузки агрегата и служит сильным ETag.
+ * <p>
+ * detailVersion - необязательная версия данных, набор которых определяется парой (например, сумма
+ * версий авторов последних комментариев при данном их числе). Сама по себе она может уменьшаться,
+ * поэтому входит в ETag отдельным числом, а не суммой с relatedVersion.
+ */
+public record ResourceVersion(Long version, Long relatedVersion, Long detailVersion) {
+
+    public ResourceVersion(Long version, Long relatedVersion) {
+        this(version, relatedVersion, null);
+    }
+
+    public ResourceVersion withDetailVersion(Long detailVersion) {
+        return new ResourceVersion(version, relatedVersion, detailVersion);
+    }
+
+    public String toETag(String resource) {
+        return "\"" + resource + "-" + version + "." + relatedVersion
+                + (detailVersion != null ? "." + detailVersion : "") + "\"";
+    }
+}
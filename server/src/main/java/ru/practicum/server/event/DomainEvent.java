@@ -0,0 +1,18 @@
+package ru.practicum.server.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Доменное событие, доставленное из outbox подписчикам (@EventListener DomainEvent).
+ * <p>
+ * Доставка - не менее одного раза: после сбоя событие приходит повторно, в том числе подписчикам,
+ * которые его уже обработали. Подписчик должен быть идемпотентным (например, по id события).
+ */
+public record DomainEvent(Long id, DomainEventType type, String aggregateType, Long aggregateId,
+                          String payload, LocalDateTime created) {
+
+    static DomainEvent of(OutboxEvent event) {
+        return new DomainEvent(event.getId(), event.getEventType(), event.getAggregateType(),
+                event.getAggregateId(), event.getPayload(), event.getCreated());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.server.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Запись доменных событий в outbox в транзакции изменения: событие фиксируется тогда и только тогда,
+ * когда фиксируется само изменение. Доставку подписчикам выполняет OutboxRelay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DomainEventOutbox {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // данные события - пары ключ/значение, null-значения пропускаются
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEventType type, Long aggregateId, Object... keyValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (keyValues[i + 1] != null) {
+                payload.put((String) keyValues[i], keyValues[i + 1]);
+            }
+        }
+
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateType(type.getAggregateType());
+        event.setAggregateId(aggregateId);
+        event.setPayload(toJson(payload));
+        event.setCreated(LocalDateTime.now());
+        entityManager.persist(event);
+        log.debug("Событие {} для {}#{} записано в outbox", type, type.getAggregateType(), aggregateId);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать данные события", e);
+        }
+    }
+}
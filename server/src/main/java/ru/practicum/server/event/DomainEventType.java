@@ -0,0 +1,19 @@
+package ru.practicum.server.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Типы доменных событий и агрегат, к которому относится событие
+@Getter
+@RequiredArgsConstructor
+public enum DomainEventType {
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_APPROVED("BOOKING"),
+    BOOKING_REJECTED("BOOKING"),
+    ITEM_CREATED("ITEM"),
+    ITEM_UPDATED("ITEM"),
+    COMMENT_ADDED("ITEM"),
+    REQUEST_CREATED("REQUEST");
+
+    private final String aggregateType;
+}
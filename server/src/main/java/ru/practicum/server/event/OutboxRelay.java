@@ -0,0 +1,139 @@
+package ru.practicum.server.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ретранслятор outbox: доставляет доменные события подписчикам внутри процесса (@EventListener DomainEvent).
+ * <p>
+ * События читаются пачками по порядку id под блокировкой строк и удаляются в той же транзакции
+ * после доставки, поэтому доставка - не менее одного раза. Подписчики вызываются синхронно вне
+ * транзакции ретранслятора: их сбой не откатывает удаление уже доставленных событий. Событие,
+ * на котором подписчик упал, остается первым в очереди и повторяется в следующем запуске,
+ * после max-attempts неудач оно удаляется с ошибкой в логе.
+ * <p>
+ * Обратное давление: следующая пачка читается только после обработки предыдущей, за запуск -
+ * не больше max-batches пачек. Медленные подписчики копят события в таблице, а не в памяти.
+ * Метрики: shareit.outbox.lag (от записи события до доставки), shareit.outbox.published,
+ * shareit.outbox.failures, shareit.outbox.dropped, shareit.outbox.pending.
+ * <p>
+ * Подписчиков в сервере пока нет, события без подписчиков удаляются как доставленные. Текущие
+ * производные данные сюда не переносятся: представление вещей и индекс интервалов бронирований
+ * должны видеть изменение сразу после ответа, а событие получает один узел, тогда как кэш второго
+ * уровня - свой на каждом узле.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate relayTransaction;
+    private final TransactionTemplate subscriberCall;
+    private final int batchSize;
+    private final int maxBatches;
+    private final int maxAttempts;
+
+    private final Timer lag;
+    private final Counter published;
+    private final Counter failures;
+    private final Counter dropped;
+    private final AtomicLong pending = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.relay.max-batches:10}") int maxBatches,
+                       @Value("${shareit.outbox.relay.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.relayTransaction = new TransactionTemplate(transactionManager);
+        // подписчик работает вне транзакции ретранслятора (свои @Transactional - в своей транзакции)
+        this.subscriberCall = new TransactionTemplate(transactionManager);
+        this.subscriberCall.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.maxAttempts = maxAttempts;
+
+        this.lag = Timer.builder("shareit.outbox.lag")
+                .description("Время от записи события в outbox до доставки подписчикам")
+                .register(meterRegistry);
+        this.published = Counter.builder("shareit.outbox.published")
+                .description("Доставленные события")
+                .register(meterRegistry);
+        this.failures = Counter.builder("shareit.outbox.failures")
+                .description("Неудачные попытки доставки")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("shareit.outbox.dropped")
+                .description("События, удаленные после max-attempts неудачных попыток")
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("Недоставленные события после последнего запуска ретранслятора")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay.interval:PT1S}",
+            initialDelayString = "${shareit.outbox.relay.interval:PT1S}")
+    public void relay() {
+        int batches = 0;
+        boolean full;
+        do {
+            full = Boolean.TRUE.equals(relayTransaction.execute(status -> relayBatch()));
+        } while (full && ++batches < maxBatches);
+        pending.set(outboxEventRepository.count());
+    }
+
+    // true - пачка доставлена целиком и была полной, можно читать следующую
+    private boolean relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForRelay(Limit.of(batchSize));
+        List<OutboxEvent> processed = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (!deliver(event)) {
+                break;
+            }
+            processed.add(event);
+        }
+        outboxEventRepository.deleteAllInBatch(processed);
+        return processed.size() == batchSize;
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        try {
+            subscriberCall.executeWithoutResult(status -> eventPublisher.publishEvent(DomainEvent.of(event)));
+        } catch (RuntimeException e) {
+            failures.increment();
+            event.setAttempts(event.getAttempts() + 1);
+            if (event.getAttempts() < maxAttempts) {
+                log.warn("Событие {} не доставлено (попытка {}): {}", event.getId(), event.getAttempts(), e.toString());
+                return false;
+            }
+            log.error("Событие {} удалено после {} неудачных попыток: {}", event, event.getAttempts(), e.toString());
+            dropped.increment();
+            return true;
+        }
+        published.increment();
+        lag.record(Duration.between(event.getCreated(), LocalDateTime.now()));
+        return true;
+    }
+}
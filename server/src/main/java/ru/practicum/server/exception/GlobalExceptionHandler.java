@@ -1,6 +1,9 @@
 package ru.practicum.server.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -59,6 +62,22 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("Конфликт данных", exception.getMessage());
     }
 
+    // параллельное изменение той же версии сущности (@Version)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(ObjectOptimisticLockingFailureException exception) {
+        log.warn("Параллельное изменение: {}", exception.getMessage());
+        return new ErrorResponse("Конфликт данных", "Данные изменены другим запросом, повторите попытку");
+    }
+
+    // соединение с БД не получено за время ожидания (пул или shareit.jdbc.max-concurrency) - перегрузка (503)
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleDatabaseBusy(Exception exception) {
+        log.warn("Нет свободного соединения с БД: {}", exception.getMessage());
+        return new ErrorResponse("Сервис перегружен", "Нет свободного соединения с БД, повторите попытку");
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)  // 403
     public ErrorResponse handleAccessDenied(AccessDeniedException exception) {
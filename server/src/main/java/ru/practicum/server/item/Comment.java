@@ -12,10 +12,19 @@ import java.time.LocalDateTime;
 @Setter
 @ToString
 @Entity
-@Table(name = "Comments")
+@Table(name = "Comments", indexes = {
+        // страницы комментариев вещи: новые сначала, keyset по (created, id)
+        @Index(name = "idx_comments_item_created", columnList = "item_id, created DESC, id DESC")
+})
+// комментарий вместе с автором (маппер читает author.name)
+@NamedEntityGraph(name = Comment.WITH_AUTHOR, attributeNodes = @NamedAttributeNode("author"))
 public class Comment {
+
+    public static final String WITH_AUTHOR = "Comment.withAuthor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "text", nullable = false, length = 1000)
@@ -1,13 +1,63 @@
 package ru.practicum.server.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByItemId(Long itemId);
+    // Первая страница комментариев вещи (новые сначала) с авторами одним запросом
+    @EntityGraph(Comment.WITH_AUTHOR)
+    List<Comment> findByItemIdOrderByCreatedDescIdDesc(Long itemId, Limit limit);
 
-    List<Comment> findByItemIdIn(List<Long> itemIds);
+    // Сумма версий авторов последних комментариев вещи (имена авторов входят в ответ на просмотр вещи)
+    @Query(value = """
+            SELECT COALESCE(SUM(u.version), 0)
+            FROM (
+                SELECT author_id
+                FROM comments
+                WHERE item_id = :itemId
+                ORDER BY created DESC, id DESC
+                LIMIT :perItem
+            ) c
+            JOIN users u ON u.id = c.author_id
+            """, nativeQuery = true)
+    long sumLatestAuthorVersions(@Param("itemId") Long itemId, @Param("perItem") int perItem);
 
+    // keyset: комментарии строго после курсора (created, id) в порядке новые сначала
+    @EntityGraph(Comment.WITH_AUTHOR)
+    @Query("SELECT c FROM Comment c " +
+            "WHERE c.item.id = :itemId " +
+            "AND (c.created < :cursorCreated OR (c.created = :cursorCreated AND c.id < :cursorId)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findPageAfter(@Param("itemId") Long itemId,
+                                @Param("cursorCreated") LocalDateTime cursorCreated,
+                                @Param("cursorId") Long cursorId,
+                                Limit limit);
+
+    // id последних perItem комментариев каждой вещи из списка одним оконным запросом (хватает индекса idx_comments_item_created)
+    @Query(value = """
+            SELECT c.id
+            FROM (
+                SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY created DESC, id DESC) AS rn
+                FROM comments
+                WHERE item_id IN (:itemIds)
+            ) c
+            WHERE c.rn <= :perItem
+            """, nativeQuery = true)
+    List<Long> findLatestIdsByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("perItem") int perItem);
+
+    @EntityGraph(Comment.WITH_AUTHOR)
+    List<Comment> findByIdInOrderByCreatedDescIdDesc(Collection<Long> ids);
+
+    // число комментариев по вещам из списка одним запросом (вещи без комментариев не попадают)
+    @Query("SELECT c.item.id AS itemId, COUNT(c) AS count FROM Comment c " +
+            "WHERE c.item.id IN :itemIds GROUP BY c.item.id")
+    List<ItemCommentCount> countByItemIds(@Param("itemIds") Collection<Long> itemIds);
 }
@@ -0,0 +1,164 @@
+package ru.practicum.server.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс слов названия и описания в памяти процесса.
+ * <p>
+ * Слова запроса ищутся как префиксы слов вещи (упорядоченная карта слов), все слова
+ * запроса должны найтись. Совпадение в названии весит больше, чем в описании.
+ * Индекс прогревается при старте и обновляется после фиксации createItem/updateItem,
+ * поэтому подходит для одного экземпляра сервера.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository itemRepository;
+
+    // слово -> id вещей, в названии или описании которых оно встречается
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedItem> documents = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    public void warmUp() {
+        itemRepository.findAll().forEach(this::index);
+        log.info("Поисковый индекс в памяти прогрет: {} вещей, {} слов", documents.size(), postings.size());
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        Set<String> words = tokenize(text);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String word : words) {
+            Map<Long, Integer> wordScores = new HashMap<>();
+            for (Set<Long> ids : postings.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+                for (Long id : ids) {
+                    IndexedItem document = documents.get(id);
+                    if (document != null && document.available()) {
+                        wordScores.merge(id, document.score(word), Math::max);
+                    }
+                }
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((id, score) -> score + wordScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .skip(from)
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        IndexedItem document = IndexedItem.of(item);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(document);
+                }
+            });
+        } else {
+            index(document);
+        }
+    }
+
+    private void index(Item item) {
+        index(IndexedItem.of(item));
+    }
+
+    private void index(IndexedItem document) {
+        writeLock.lock();
+        try {
+            Set<String> words = document.words();
+            IndexedItem previous = documents.put(document.id(), document);
+            if (previous != null) {
+                for (String word : previous.words()) {
+                    Set<Long> ids = postings.get(word);
+                    if (ids != null && !words.contains(word)) {
+                        ids.remove(document.id());
+                        if (ids.isEmpty()) {
+                            postings.remove(word);
+                        }
+                    }
+                }
+            }
+            for (String word : words) {
+                postings.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(document.id());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private record IndexedItem(Long id, boolean available, Set<String> nameWords, Set<String> descriptionWords) {
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), Boolean.TRUE.equals(item.getAvailable()),
+                    tokenize(item.getName()), tokenize(item.getDescription()));
+        }
+
+        Set<String> words() {
+            Set<String> words = new HashSet<>(nameWords);
+            words.addAll(descriptionWords);
+            return words;
+        }
+
+        // вес лучшего совпадения префикса в вещи
+        int score(String prefix) {
+            if (nameWords.stream().anyMatch(word -> word.startsWith(prefix))) {
+                return NAME_WEIGHT;
+            }
+            return descriptionWords.stream().anyMatch(word -> word.startsWith(prefix)) ? DESCRIPTION_WEIGHT : 0;
+        }
+    }
+}
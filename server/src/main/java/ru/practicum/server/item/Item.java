@@ -1,6 +1,8 @@
 package ru.practicum.server.item;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -11,10 +13,16 @@ import ru.practicum.server.user.User;
 @Setter
 @Entity
 @ToString
-@Table(name = "Items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
+@Table(name = "Items", indexes = {
+        // вещи владельца и соединение бронирований с владельцем
+        @Index(name = "idx_items_owner", columnList = "owner_id, id")
+})
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 255)
@@ -35,4 +43,13 @@ public class Item {
     @JoinColumn(name = "request_id")
     @ToString.Exclude
     private ItemRequest request;
+
+    // число комментариев: увеличивается запросом в addComment, обновление вещи его не перезаписывает
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private Long commentCount = 0L;
+
+    // версия для оптимистичной блокировки и ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.server.item;
+
+// Число комментариев вещи, посчитанное по таблице comments (пересборка представления вещей)
+public interface ItemCommentCount {
+
+    Long getItemId();
+
+    Long getCount();
+}
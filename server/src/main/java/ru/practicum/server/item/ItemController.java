@@ -1,26 +1,42 @@
 package ru.practicum.server.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.dto.item.CommentDto;
 import ru.practicum.dto.item.ItemDto;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/items")
 public class ItemController {
     private static final Logger log = LoggerFactory.getLogger(ItemController.class);
+    private static final int DEFAULT_PAGE_SIZE = 10;
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     // создание вещи
@@ -33,29 +49,71 @@ public class ItemController {
         return itemService.createItem(ownerId, itemDto);
     }
 
-    // просмотр вещи по id
+    // просмотр вещи по id; при совпадении If-None-Match - 304 без загрузки вещи
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@PathVariable Long itemId) {  // ← НЕТ @Positive
+    public ItemDto getItemById(@PathVariable Long itemId, WebRequest request) {  // ← НЕТ @Positive
         log.info("GET /items/{} - Запрос на просмотр информации вещи с id: {}", itemId, itemId);
+        Optional<String> eTag = itemService.getItemETag(itemId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         return itemService.getItemById(itemId);
     }
 
-    // просмотр вещй владельца
+    // комментарии вещи страницами: новые сначала, keyset после последнего полученного (created, id)
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@PathVariable Long itemId,
+                                        @RequestParam(defaultValue = "10") int size,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                        LocalDateTime cursorCreated,
+                                        @RequestParam(required = false) Long cursorId) {
+        log.info("GET /items/{}/comments - size={}, cursor=({}, {})", itemId, size, cursorCreated, cursorId);
+        return itemService.getComments(itemId, size, cursorCreated, cursorId);
+    }
+
+    // просмотр вещй владельца: from/size или keyset после afterId, без них - все вещи, как раньше
     @GetMapping()
-    public Collection<ItemDto> getMyItems(@RequestHeader("X-Sharer-User-Id") Long ownerId) {  // ← НЕТ @Positive
-        log.info("GET /items - Запрос на вывод вещей владельца: {}", ownerId);
-        return itemService.getItemsByOwner(ownerId);
+    public Collection<ItemDto> getMyItems(@RequestHeader("X-Sharer-User-Id") Long ownerId,  // ← НЕТ @Positive
+                                          @RequestParam(required = false) Integer from,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestParam(required = false) Long afterId) {
+        log.info("GET /items - Запрос на вывод вещей владельца: {}, from={}, size={}, afterId={}",
+                ownerId, from, size, afterId);
+        if (isUnpaged(from, size, afterId)) {
+            return collect(consumer -> itemService.streamItemsByOwner(ownerId, consumer));
+        }
+        return itemService.getItemsByOwner(ownerId, orDefault(from, 0), orDefault(size, DEFAULT_PAGE_SIZE), afterId);
+    }
+
+    // потоковый вывод вещей владельца (NDJSON)
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMyItems(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("GET /items?stream=true - Потоковый вывод вещей владельца: {}", ownerId);
+        return ndjson(writer -> itemService.streamItemsByOwner(ownerId, writer));
     }
 
-    // поиск вещи по названию или описанию
+    // поиск вещи по названию или описанию; без from/size - все найденные вещи
     @GetMapping("/search")
-    public Collection<ItemDto> searchItem(@RequestParam String text) {
-        log.info("GET /items/search - Запрос на поиск вещей по тексту: '{}'", text);
+    public Collection<ItemDto> searchItem(@RequestParam String text,
+                                          @RequestParam(required = false) Integer from,
+                                          @RequestParam(required = false) Integer size) {
+        log.info("GET /items/search - Запрос на поиск вещей по тексту: '{}', from={}, size={}", text, from, size);
 
         if (text.isEmpty()) {
             return List.of();
         }
-        return itemService.searchAvailableItems(text);
+        if (isUnpaged(from, size, null)) {
+            return collect(consumer -> itemService.streamSearchAvailableItems(text, consumer));
+        }
+        return itemService.searchAvailableItems(text, orDefault(from, 0), orDefault(size, DEFAULT_PAGE_SIZE));
+    }
+
+    // потоковый поиск (NDJSON)
+    @GetMapping(value = "/search", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchItem(@RequestParam String text) {
+        log.info("GET /items/search?stream=true - Потоковый поиск вещей по тексту: '{}'", text);
+        return ndjson(writer -> itemService.streamSearchAvailableItems(text, writer));
     }
 
     // обновление вещи пользователем
@@ -68,11 +126,23 @@ public class ItemController {
         return itemService.updateItem(itemId, itemDto, userId);
     }
 
-    // вывод всех вещей
+    // вывод всех вещей: from/size или keyset после afterId, без них - все вещи
     @GetMapping("/allTeam")
-    public Collection<ItemDto> getAllItems() {
-        log.info("GET /items - Запрос на вывод всех вещей");
-        return itemService.getAllItems();
+    public Collection<ItemDto> getAllItems(@RequestParam(required = false) Integer from,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) Long afterId) {
+        log.info("GET /items/allTeam - Запрос на вывод всех вещей, from={}, size={}, afterId={}", from, size, afterId);
+        if (isUnpaged(from, size, afterId)) {
+            return collect(itemService::streamAllItems);
+        }
+        return itemService.getAllItems(orDefault(from, 0), orDefault(size, DEFAULT_PAGE_SIZE), afterId);
+    }
+
+    // потоковый вывод всех вещей (NDJSON)
+    @GetMapping(value = "/allTeam", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        log.info("GET /items/allTeam?stream=true - Потоковый вывод всех вещей");
+        return ndjson(itemService::streamAllItems);
     }
 
     // добавление комментария
@@ -83,4 +153,40 @@ public class ItemController {
         log.info("POST /items/{}/comment - Запрос на добавление комментария пользователем {}", itemId, userId);
         return itemService.addComment(userId, itemId, commentDto);
     }
+
+    // параметры страницы не заданы: клиенты до пагинации ждут полный список, он читается курсором порциями
+    private static boolean isUnpaged(Integer from, Integer size, Long afterId) {
+        return from == null && size == null && afterId == null;
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static List<ItemDto> collect(Consumer<Consumer<ItemDto>> producer) {
+        List<ItemDto> items = new ArrayList<>();
+        producer.accept(items::add);
+        return items;
+    }
+
+    // NDJSON: по одному объекту в строке, запись идет по мере чтения курсора
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<ItemDto>> producer) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                producer.accept(itemDto -> {
+                    try {
+                        objectMapper.writeValue(outputStream, itemDto);
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
\ No newline at end of file
@@ -15,8 +15,19 @@ public interface ItemMapper {
     @Mapping(target = "nextBooking", ignore = true)
     ItemDto toItemDto(Item item);
 
+    // вещь из представления для чтения: бронирования и комментарии дополняет сервис
+    @Mapping(source = "itemId", target = "id")
+    @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "lastBooking", ignore = true)
+    @Mapping(target = "nextBooking", ignore = true)
+    ItemDto toItemDto(ItemView view);
+
 
+    // id новой вещи выдает последовательность
+    @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     Item toItem(ItemDto itemDto);
 
     List<ItemDto> mapToItemDto(List<Item> items);
@@ -1,26 +1,54 @@
 package ru.practicum.server.item;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.server.common.ResourceVersion;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwnerId(Long ownerId);
 
-    List<Item> findByRequestId(Long requestId);
+    // версия вещи для ETag без загрузки вещи (комментарии не удаляются, их число только растет);
+    // авторы последних комментариев - CommentRepository.sumLatestAuthorVersions
+    @Query("SELECT new ru.practicum.server.common.ResourceVersion(i.version, i.commentCount) " +
+            "FROM Item i WHERE i.id = :itemId")
+    Optional<ResourceVersion> findVersionById(@Param("itemId") Long itemId);
+
+    // Атомарное увеличение счетчика комментариев без блокировки версии вещи. Пространство запроса -
+    // comments: иначе Hibernate сбросил бы весь регион вещей в кэше второго уровня, запись вещи вытесняется отдельно
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "comments"))
+    @Query(value = "UPDATE items SET comment_count = comment_count + 1 WHERE id = :itemId", nativeQuery = true)
+    int incrementCommentCount(@Param("itemId") Long itemId);
+
+    List<Item> findAllByOrderByIdAsc(Pageable pageable);
 
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // id вещей после afterId по возрастанию (порции пересборки представления вещей)
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsByIdGreaterThan(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Item> streamAllByOrderByIdAsc();
+
+    List<Item> findByRequestId(Long requestId);
 
-    @Query("""
-            SELECT i
-            FROM Item i
-            WHERE i.available = true
-            AND (
-                LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%'))
-                OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))
-            )
-            """)
-    List<Item> searchAvailableItems(@Param("text") String text);
 }
\ No newline at end of file
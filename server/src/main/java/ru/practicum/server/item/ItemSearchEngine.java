@@ -0,0 +1,20 @@
+package ru.practicum.server.item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ * <p>
+ * Реализация выбирается свойством {@code shareit.search.engine}:
+ * {@code like} (по умолчанию, работает на H2 и PostgreSQL), {@code postgres} (tsvector + GIN)
+ * или {@code memory} (инвертированный индекс в памяти процесса).
+ */
+public interface ItemSearchEngine {
+
+    // id доступных вещей в порядке релевантности, страница from/size
+    List<Long> search(String text, int from, int size);
+
+    // вещь создана или изменена (для движков с собственным индексом)
+    default void onItemSaved(Item item) {
+    }
+}
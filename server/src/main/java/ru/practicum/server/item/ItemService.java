@@ -3,7 +3,11 @@ package ru.practicum.server.item;
 import ru.practicum.dto.item.CommentDto;
 import ru.practicum.dto.item.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
@@ -11,13 +15,25 @@ public interface ItemService {
 
     ItemDto createItemForRequest(Long ownerId, ItemDto itemDto, Long requestId);
 
-    Collection<ItemDto> getAllItems();
+    Collection<ItemDto> getAllItems(int from, int size, Long afterId);
 
-    Collection<ItemDto> getItemsByOwner(Long ownerId);
+    void streamAllItems(Consumer<ItemDto> consumer);
+
+    Collection<ItemDto> getItemsByOwner(Long ownerId, int from, int size, Long afterId);
+
+    void streamItemsByOwner(Long ownerId, Consumer<ItemDto> consumer);
 
     ItemDto getItemById(Long itemId);
 
-    Collection<ItemDto> searchAvailableItems(String text);
+    // комментарии вещи: новые сначала, keyset после (cursorCreated, cursorId)
+    List<CommentDto> getComments(Long itemId, int size, LocalDateTime cursorCreated, Long cursorId);
+
+    // ETag вещи; пусто, если вещи нет
+    Optional<String> getItemETag(Long itemId);
+
+    Collection<ItemDto> searchAvailableItems(String text, int from, int size);
+
+    void streamSearchAvailableItems(String text, Consumer<ItemDto> consumer);
 
     ItemDto updateItem(Long id, ItemDto itemDto, Long userId);
 
@@ -1,13 +1,20 @@
 package ru.practicum.server.item;
 
 import ru.practicum.dto.item.CommentDto;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.server.booking.BookingRepository;
 import ru.practicum.dto.item.ItemDto;
+import ru.practicum.server.common.EntityCacheEvictor;
+import ru.practicum.server.common.OffsetPageRequest;
+import ru.practicum.server.event.DomainEventOutbox;
+import ru.practicum.server.event.DomainEventType;
 import ru.practicum.server.exception.AccessDeniedException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
@@ -17,14 +24,19 @@ import ru.practicum.server.user.User;
 import ru.practicum.server.user.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
@@ -32,8 +44,18 @@ public class ItemServiceImpl implements ItemService {
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemViewRepository itemViewRepository;
+    private final ItemViewProjector itemViewProjector;
+    private final DomainEventOutbox domainEventOutbox;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final EntityManager entityManager;
     private static final Logger log = LoggerFactory.getLogger(ItemServiceImpl.class);
 
+    // сколько последних комментариев встраивается в вещь, остальные - через GET /items/{id}/comments
+    @Value("${shareit.item.comments.preview-size:10}")
+    private int commentsPreviewSize;
+
     // Создать вещь
     @Override
     @Transactional
@@ -60,6 +82,11 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item savedItem = itemRepository.save(item);
+        itemSearchEngine.onItemSaved(savedItem);
+        itemViewProjector.onItemCreated(savedItem);
+        domainEventOutbox.append(DomainEventType.ITEM_CREATED, savedItem.getId(),
+                "ownerId", ownerId,
+                "requestId", savedItem.getRequest() != null ? savedItem.getRequest().getId() : null);
 
         log.info("Предмет сохранен. ID={}, Имя='{}', RequestID={}",
                 savedItem.getId(),
@@ -88,56 +115,127 @@ public class ItemServiceImpl implements ItemService {
         item.setRequest(request);
 
         Item savedItem = itemRepository.save(item);
+        itemSearchEngine.onItemSaved(savedItem);
+        itemViewProjector.onItemCreated(savedItem);
+        domainEventOutbox.append(DomainEventType.ITEM_CREATED, savedItem.getId(),
+                "ownerId", ownerId,
+                "requestId", savedItem.getRequest() != null ? savedItem.getRequest().getId() : null);
         log.info("Создана вещь с ID: {} для запроса {}", savedItem.getId(), requestId);
 
         return itemMapper.toItemDto(savedItem);
     }
 
-    // Вывод всех вещей
+    // Вывод всех вещей: после afterId (keyset) или по смещению from
     @Override
-    public Collection<ItemDto> getAllItems() {
-        List<Item> items = itemRepository.findAll();
+    public Collection<ItemDto> getAllItems(int from, int size, Long afterId) {
+        List<Item> items = afterId != null
+                ? itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size))
+                : itemRepository.findAllByOrderByIdAsc(new OffsetPageRequest(from, size));
         return itemMapper.mapToItemDto(items);
     }
 
-    // Информация о вещи по id
+    // Потоковый вывод всех вещей курсором
+    @Override
+    public void streamAllItems(Consumer<ItemDto> consumer) {
+        try (Stream<Item> items = itemRepository.streamAllByOrderByIdAsc()) {
+            forEachChunk(items, chunk -> chunk.stream()
+                    .map(itemMapper::toItemDto)
+                    .forEach(consumer));
+        }
+    }
+
+    // Информация о вещи по id: строка представления item_view и последние комментарии
     @Override
     public ItemDto getItemById(Long itemId) {
         log.info("Поиск вещи с id = {}", itemId);
-        Item item = itemRepository.findById(itemId)
+        ItemView view = itemViewRepository.findById(itemId)
                 .orElseThrow(() -> {
                     log.error("Вещи с id = {} не найден", itemId);
                     return new NotFoundException("Вещь с id = " + itemId + " не найден");
                 });
 
-        ItemDto itemDto = itemMapper.toItemDto(item);
+        ItemDto itemDto = itemMapper.toItemDto(view);
 
-        List<CommentDto> comments = commentRepository.findByItemId(itemId).stream()
+        // только последние комментарии: стоимость просмотра не зависит от их общего числа (commentCount)
+        List<CommentDto> comments = commentRepository
+                .findByItemIdOrderByCreatedDescIdDesc(itemId, Limit.of(commentsPreviewSize)).stream()
                 .map(commentMapper::toCommentDto)
                 .collect(Collectors.toList());
 
         itemDto.setComments(comments);
-        log.info("Найдена вещь {} с {} комментариями", itemId, comments.size());
+        log.info("Найдена вещь {} с {} комментариями", itemId, view.getCommentCount());
 
         return itemDto;
     }
 
-    // Вещи владельца
+    // Комментарии вещи страницами: новые сначала, после курсора (created, id) последнего полученного
+    @Override
+    public List<CommentDto> getComments(Long itemId, int size, LocalDateTime cursorCreated, Long cursorId) {
+        log.info("Комментарии вещи {}: size={}, cursor=({}, {})", itemId, size, cursorCreated, cursorId);
+        if ((cursorCreated == null) != (cursorId == null)) {
+            log.error("Неполный курсор: cursorCreated={}, cursorId={}", cursorCreated, cursorId);
+            throw new ValidationException("Курсор задается парой параметров cursorCreated и cursorId");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id " + itemId + " не найдена");
+        }
+
+        List<Comment> comments = cursorCreated != null
+                ? commentRepository.findPageAfter(itemId, cursorCreated, cursorId, Limit.of(size))
+                : commentRepository.findByItemIdOrderByCreatedDescIdDesc(itemId, Limit.of(size));
+        return comments.stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<String> getItemETag(Long itemId) {
+        // при том же числе комментариев набор последних фиксирован, меняются только версии их авторов
+        return itemRepository.findVersionById(itemId)
+                .map(version -> version.withDetailVersion(
+                        commentRepository.sumLatestAuthorVersions(itemId, commentsPreviewSize)))
+                .map(version -> version.toETag("item"));
+    }
+
+    // Вещи владельца из представления item_view: после afterId (keyset) или по смещению from
+    @Override
+    public Collection<ItemDto> getItemsByOwner(Long ownerId, int from, int size, Long afterId) {
+        userService.checkUserExists(ownerId);
+
+        List<ItemView> views = afterId != null
+                ? itemViewRepository.findByOwnerIdAndItemIdGreaterThanOrderByItemIdAsc(ownerId, afterId, Limit.of(size))
+                : itemViewRepository.findByOwnerIdOrderByItemIdAsc(ownerId, new OffsetPageRequest(from, size));
+
+        return toOwnerItemDtos(views);
+    }
+
+    // Потоковый вывод вещей владельца: курсор читается порциями, каждая порция дополняется пакетно
     @Override
-    public Collection<ItemDto> getItemsByOwner(Long ownerId) {
-        userService.findUserById(ownerId);
+    public void streamItemsByOwner(Long ownerId, Consumer<ItemDto> consumer) {
+        userService.checkUserExists(ownerId);
 
-        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        try (Stream<ItemView> views = itemViewRepository.streamByOwnerIdOrderByItemIdAsc(ownerId)) {
+            forEachChunk(views, chunk -> toOwnerItemDtos(chunk).forEach(consumer));
+        }
+    }
 
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
+    // Последние комментарии для списка вещей владельца - по одному запросу на список,
+    // бронирования - из представления (истекшие окна досчитываются одним запросом)
+    private List<ItemDto> toOwnerItemDtos(List<ItemView> views) {
+        List<Long> itemIds = views.stream()
+                .map(ItemView::getItemId)
                 .collect(Collectors.toList());
 
-        List<Comment> allComments = commentRepository.findByItemIdIn(itemIds);
+        List<Long> commentIds = itemIds.isEmpty()
+                ? List.of()
+                : commentRepository.findLatestIdsByItemIds(itemIds, commentsPreviewSize);
+        List<Comment> latestComments = commentIds.isEmpty()
+                ? List.of()
+                : commentRepository.findByIdInOrderByCreatedDescIdDesc(commentIds);
 
         Map<Long, List<CommentDto>> commentsMap = new HashMap<>();
 
-        for (Comment comment : allComments) {
+        for (Comment comment : latestComments) {
             Long itemId = comment.getItem().getId();
             CommentDto commentDto = commentMapper.toCommentDto(comment);
 
@@ -145,13 +243,20 @@ public class ItemServiceImpl implements ItemService {
                     .add(commentDto);
         }
 
+        Map<Long, ItemViewProjector.BookingWindow> expiredWindows =
+                itemViewProjector.recomputeExpired(views, LocalDateTime.now());
+
         List<ItemDto> result = new ArrayList<>();
 
-        for (Item item : items) {
-            ItemDto itemDto = itemMapper.toItemDto(item);
+        for (ItemView view : views) {
+            ItemDto itemDto = itemMapper.toItemDto(view);
 
-            List<CommentDto> comments = commentsMap.get(item.getId());
+            List<CommentDto> comments = commentsMap.get(view.getItemId());
             itemDto.setComments(comments != null ? comments : List.of());
+            ItemViewProjector.BookingWindow window = expiredWindows.getOrDefault(view.getItemId(),
+                    ItemViewProjector.BookingWindow.of(view));
+            itemDto.setLastBooking(window.lastBooking(view.getItemId()));
+            itemDto.setNextBooking(window.nextBooking(view.getItemId()));
 
             result.add(itemDto);
         }
@@ -159,18 +264,59 @@ public class ItemServiceImpl implements ItemService {
         return result;
     }
 
-    //Поиск по тексту
+    //Поиск по тексту: движок поиска отдает id по релевантности, вещи загружаются одним запросом
     @Override
-    public Collection<ItemDto> searchAvailableItems(String text) {
+    public Collection<ItemDto> searchAvailableItems(String text, int from, int size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        List<Item> items = itemRepository.searchAvailableItems(text.toLowerCase());
-        return items.stream()
+        return loadInOrder(itemSearchEngine.search(text, from, size));
+    }
+
+    // Потоковый поиск: движок читается страницами, в памяти не больше одной страницы
+    @Override
+    public void streamSearchAvailableItems(String text, Consumer<ItemDto> consumer) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        int from = 0;
+        List<Long> ids;
+        do {
+            ids = itemSearchEngine.search(text, from, STREAM_CHUNK_SIZE);
+            loadInOrder(ids).forEach(consumer);
+            entityManager.clear();
+            from += ids.size();
+        } while (ids.size() == STREAM_CHUNK_SIZE);
+    }
+
+    // Вещи по списку id в порядке списка
+    private List<ItemDto> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> itemsById = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    // Разбивает поток вещей на порции, после каждой порции контекст очищается - память не растет
+    private <T> void forEachChunk(Stream<T> items, Consumer<List<T>> chunkConsumer) {
+        List<T> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        Iterator<T> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == STREAM_CHUNK_SIZE || !iterator.hasNext()) {
+                chunkConsumer.accept(chunk);
+                entityManager.clear();
+                chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            }
+        }
+    }
+
     //Обновление информации о вещи
     @Override
     @Transactional
@@ -208,6 +354,12 @@ public class ItemServiceImpl implements ItemService {
             log.warn("Данные вещи не изменились");
             throw new ValidationException("Данные вещи не изменились");
         }
+        itemSearchEngine.onItemSaved(existingItem);
+        itemViewProjector.onItemUpdated(existingItem);
+        domainEventOutbox.append(DomainEventType.ITEM_UPDATED, itemId,
+                "ownerId", userId,
+                "available", existingItem.getAvailable());
+        entityCacheEvictor.evictAfterCommit(Item.class, itemId);
         return itemMapper.toItemDto(existingItem);
     }
 
@@ -241,9 +393,16 @@ public class ItemServiceImpl implements ItemService {
         comment.setText(commentDto.getText());
         comment.setItem(existingItem);
         comment.setAuthor(author);
-        comment.setCreated(LocalDateTime.now());
+        // точность как в ответе (секунды): created из ответа служит курсором страницы комментариев
+        comment.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
 
         Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
+        itemViewProjector.onCommentAdded(itemId);
+        domainEventOutbox.append(DomainEventType.COMMENT_ADDED, itemId,
+                "commentId", savedComment.getId(),
+                "authorId", userId);
+        entityCacheEvictor.evictAfterCommit(Item.class, itemId);
         log.info("Комментарий успешно добавлен: {}", savedComment.getId());
 
         return commentMapper.toCommentDto(savedComment);
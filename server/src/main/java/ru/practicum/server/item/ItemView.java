@@ -0,0 +1,82 @@
+package ru.practicum.server.item;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Представление вещи для чтения: вещь, число комментариев и окно подтвержденных бронирований
+ * (последнее и ближайшее) в одной строке. Ведется ItemViewProjector в транзакциях, меняющих
+ * вещь, комментарии и бронирования.
+ * <p>
+ * Окно бронирований зависит от текущего времени: когда начинается ближайшее бронирование,
+ * оно становится последним. Поэтому окно хранится со сроком годности bookingsValidUntil.
+ * Обновляются только измененные колонки (@DynamicUpdate): параллельные правки вещи
+ * и окна бронирований не затирают друг друга.
+ */
+@Getter
+@Setter
+@Entity
+@ToString
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "itemViews")
+@Table(name = "item_view", indexes = {
+        @Index(name = "idx_item_view_owner", columnList = "owner_id, item_id"),
+        @Index(name = "idx_item_view_valid_until", columnList = "bookings_valid_until")
+})
+public class ItemView {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // связь задает порядок вставки: строка представления после строки вещи в той же пачке
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    private Item item;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    @Column(name = "description", length = 1000)
+    private String description;
+
+    @Column(name = "available", nullable = false)
+    private Boolean available;
+
+    // увеличивается запросом вместе со счетчиком вещи (ItemViewRepository.incrementCommentCount)
+    @Column(name = "comment_count", nullable = false)
+    private Long commentCount = 0L;
+
+    @Column(name = "last_booking_start")
+    private LocalDateTime lastBookingStart;
+
+    @Column(name = "last_booking_end")
+    private LocalDateTime lastBookingEnd;
+
+    @Column(name = "next_booking_start")
+    private LocalDateTime nextBookingStart;
+
+    @Column(name = "next_booking_end")
+    private LocalDateTime nextBookingEnd;
+
+    // окно бронирований верно до этого момента (начало ближайшего бронирования); null - без срока
+    @Column(name = "bookings_valid_until")
+    private LocalDateTime bookingsValidUntil;
+
+    public boolean isBookingsExpired(LocalDateTime now) {
+        return bookingsValidUntil != null && now.isAfter(bookingsValidUntil);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.server.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Пересборка представления вещей из базовых таблиц: POST /actuator/itemview.
+ * Нужна после правок данных в обход сервисов (загрузка через SQL, ручное исправление).
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "itemview")
+public class ItemViewEndpoint {
+
+    private final ItemViewProjector itemViewProjector;
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        return Map.of("items", itemViewProjector.rebuild());
+    }
+}
@@ -0,0 +1,235 @@
+package ru.practicum.server.item;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.server.booking.BookingRepository;
+import ru.practicum.server.booking.ItemBookingWindow;
+import ru.practicum.server.common.EntityCacheEvictor;
+import ru.practicum.server.exception.NotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ведение представления вещей для чтения (item_view).
+ * <p>
+ * Изменения вещи, счетчика комментариев и подтверждение бронирования записываются в представление
+ * в той же транзакции, что и изменение базовых таблиц. Окно бронирований (последнее и ближайшее)
+ * пересчитывается под блокировкой строки представления. Когда ближайшее бронирование начинается,
+ * окно истекает: чтение досчитывает такие строки сам, а refreshExpired сдвигает их в таблице.
+ * rebuild заново собирает представление из items, comments и bookings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemViewProjector {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final ItemViewRepository itemViewRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    // у новой вещи еще нет бронирований и комментариев
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemCreated(Item item) {
+        ItemView view = new ItemView();
+        view.setItem(item);
+        copyItem(item, view);
+        entityManager.persist(view);
+    }
+
+    // измененные поля вещи переносятся в представление, окно бронирований не меняется
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemUpdated(Item item) {
+        ItemView view = itemViewRepository.findById(item.getId())
+                .orElseThrow(() -> new NotFoundException("Представление вещи " + item.getId() + " не найдено"));
+        copyItem(item, view);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCommentAdded(Long itemId) {
+        itemViewRepository.incrementCommentCount(itemId);
+        entityCacheEvictor.evictAfterCommit(ItemView.class, itemId);
+    }
+
+    // подтвержденное бронирование может стать последним или ближайшим для вещи
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingApproved(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemView view = itemViewRepository.findForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Представление вещи " + itemId + " не найдено"));
+        // новый статус бронирования должен попасть в оконный запрос
+        entityManager.flush();
+        applyWindow(view, computeWindows(List.of(itemId), now).get(itemId));
+        log.debug("Окно бронирований вещи {} пересчитано: {}", itemId, view);
+    }
+
+    // Окна бронирований строк, истекших к моменту now, одним запросом (по id вещи); в таблицу не записываются
+    public Map<Long, BookingWindow> recomputeExpired(Collection<ItemView> views, LocalDateTime now) {
+        List<Long> expiredIds = views.stream()
+                .filter(view -> view.isBookingsExpired(now))
+                .map(ItemView::getItemId)
+                .collect(Collectors.toList());
+        if (expiredIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, BookingWindow> windows = computeWindows(expiredIds, now);
+        expiredIds.forEach(itemId -> windows.putIfAbsent(itemId, BookingWindow.EMPTY));
+        return windows;
+    }
+
+    // Сдвиг истекших окон бронирований в таблице, порциями в отдельных транзакциях
+    @Scheduled(fixedDelayString = "${shareit.item.view.refresh-interval:PT30S}",
+            initialDelayString = "${shareit.item.view.refresh-interval:PT30S}")
+    public void refreshExpired() {
+        int refreshed = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = itemViewRepository.findExpiredIds(now, Limit.of(CHUNK_SIZE));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<ItemView> views = itemViewRepository.findAllForUpdate(ids);
+                Map<Long, BookingWindow> windows = computeWindows(ids, now);
+                for (ItemView view : views) {
+                    // строку могли пересчитать параллельно, пока ждали блокировку
+                    if (view.isBookingsExpired(now)) {
+                        applyWindow(view, windows.get(view.getItemId()));
+                    }
+                }
+                return ids.size();
+            });
+            refreshed += chunk;
+        } while (chunk == CHUNK_SIZE);
+        if (refreshed > 0) {
+            log.info("Сдвинуты истекшие окна бронирований: {} вещей", refreshed);
+        }
+    }
+
+    // Пересборка представления из базовых таблиц (items, comments, bookings) порциями по id вещи; возвращает число вещей
+    public int rebuild() {
+        log.info("Пересборка представления вещей");
+        long afterId = 0L;
+        int total = 0;
+        List<Long> ids;
+        do {
+            long from = afterId;
+            ids = transactionTemplate.execute(status -> rebuildChunk(from));
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+                total += ids.size();
+            }
+        } while (ids.size() == CHUNK_SIZE);
+        log.info("Представление вещей пересобрано: {} вещей", total);
+        return total;
+    }
+
+    private List<Long> rebuildChunk(long afterId) {
+        List<Long> ids = itemRepository.findIdsByIdGreaterThan(afterId, Limit.of(CHUNK_SIZE));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // сначала блокировка строк представления, затем чтение вещей и бронирований:
+        // параллельные изменения либо уже зафиксированы, либо подождут конца порции
+        Map<Long, ItemView> views = itemViewRepository.findAllForUpdate(ids).stream()
+                .collect(Collectors.toMap(ItemView::getItemId, Function.identity()));
+        Map<Long, Long> commentCounts = commentRepository.countByItemIds(ids).stream()
+                .collect(Collectors.toMap(ItemCommentCount::getItemId, ItemCommentCount::getCount));
+        Map<Long, BookingWindow> windows = computeWindows(ids, LocalDateTime.now());
+
+        for (Item item : itemRepository.findAllById(ids)) {
+            ItemView view = views.get(item.getId());
+            boolean missing = view == null;
+            if (missing) {
+                view = new ItemView();
+                view.setItem(item);
+            }
+            copyItem(item, view);
+            view.setCommentCount(commentCounts.getOrDefault(item.getId(), 0L));
+            applyWindow(view, windows.get(item.getId()));
+            if (missing) {
+                entityManager.persist(view);
+            }
+        }
+        return ids;
+    }
+
+    private Map<Long, BookingWindow> computeWindows(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingWindow> windows = new HashMap<>();
+        for (ItemBookingWindow row : bookingRepository.findLastAndNextApprovedBookings(itemIds, now)) {
+            BookingWindow window = windows.getOrDefault(row.getItemId(), BookingWindow.EMPTY);
+            windows.put(row.getItemId(), ItemBookingWindow.LAST.equals(row.getKind())
+                    ? new BookingWindow(row.getStartTime(), row.getEndTime(), window.nextStart(), window.nextEnd())
+                    : new BookingWindow(window.lastStart(), window.lastEnd(), row.getStartTime(), row.getEndTime()));
+        }
+        return windows;
+    }
+
+    private static void copyItem(Item item, ItemView view) {
+        view.setOwnerId(item.getOwner().getId());
+        view.setName(item.getName());
+        view.setDescription(item.getDescription());
+        view.setAvailable(item.getAvailable());
+    }
+
+    private static void applyWindow(ItemView view, BookingWindow window) {
+        BookingWindow actual = window != null ? window : BookingWindow.EMPTY;
+        view.setLastBookingStart(actual.lastStart());
+        view.setLastBookingEnd(actual.lastEnd());
+        view.setNextBookingStart(actual.nextStart());
+        view.setNextBookingEnd(actual.nextEnd());
+        // окно верно, пока не начнется ближайшее бронирование
+        view.setBookingsValidUntil(actual.nextStart());
+    }
+
+    // Последнее и ближайшее подтвержденные бронирования вещи
+    public record BookingWindow(LocalDateTime lastStart, LocalDateTime lastEnd,
+                                LocalDateTime nextStart, LocalDateTime nextEnd) {
+
+        static final BookingWindow EMPTY = new BookingWindow(null, null, null, null);
+
+        public static BookingWindow of(ItemView view) {
+            return new BookingWindow(view.getLastBookingStart(), view.getLastBookingEnd(),
+                    view.getNextBookingStart(), view.getNextBookingEnd());
+        }
+
+        public BookingDto lastBooking(Long itemId) {
+            return toBookingDto(itemId, lastStart, lastEnd);
+        }
+
+        public BookingDto nextBooking(Long itemId) {
+            return toBookingDto(itemId, nextStart, nextEnd);
+        }
+
+        private static BookingDto toBookingDto(Long itemId, LocalDateTime start, LocalDateTime end) {
+            if (start == null) {
+                return null;
+            }
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(itemId);
+            bookingDto.setStart(start);
+            bookingDto.setEnd(end);
+            return bookingDto;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.server.item;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ItemViewRepository extends JpaRepository<ItemView, Long> {
+
+    // Вещи владельца по смещению (from/size)
+    List<ItemView> findByOwnerIdOrderByItemIdAsc(Long ownerId, Pageable pageable);
+
+    // Вещи владельца после указанного id (keyset-пагинация)
+    List<ItemView> findByOwnerIdAndItemIdGreaterThanOrderByItemIdAsc(Long ownerId, Long afterId, Limit limit);
+
+    // Потоковое чтение вещей владельца курсором
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<ItemView> streamByOwnerIdOrderByItemIdAsc(Long ownerId);
+
+    // Строка представления под блокировкой до конца транзакции: пересчет окна бронирований
+    // видит бронирования, подтвержденные параллельными транзакциями до снятия блокировки
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ItemView v WHERE v.itemId = :itemId")
+    Optional<ItemView> findForUpdate(@Param("itemId") Long itemId);
+
+    // Несколько строк под блокировкой в порядке id (пересборка, истекшие окна)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ItemView v WHERE v.itemId IN :itemIds ORDER BY v.itemId")
+    List<ItemView> findAllForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    // Вещи, у которых началось ближайшее бронирование: окно нужно сдвинуть
+    @Query("SELECT v.itemId FROM ItemView v WHERE v.bookingsValidUntil < :now ORDER BY v.bookingsValidUntil")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Атомарное увеличение счетчика комментариев, как и ItemRepository.incrementCommentCount:
+    // пространство запроса comments, строка представления вытесняется из кэша отдельно
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "comments"))
+    @Query(value = "UPDATE item_view SET comment_count = comment_count + 1 WHERE item_id = :itemId",
+            nativeQuery = true)
+    int incrementCommentCount(@Param("itemId") Long itemId);
+}
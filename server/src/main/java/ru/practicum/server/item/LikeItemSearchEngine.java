@@ -0,0 +1,39 @@
+package ru.practicum.server.item;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Поиск подстроки через LIKE: совпадения в начале названия выше совпадений в названии, затем в описании
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        return entityManager.createQuery("""
+                        SELECT i.id
+                        FROM Item i
+                        WHERE i.available = true
+                        AND (
+                            LOWER(i.name) LIKE CONCAT('%', :text, '%')
+                            OR LOWER(i.description) LIKE CONCAT('%', :text, '%')
+                        )
+                        ORDER BY CASE
+                            WHEN LOWER(i.name) LIKE CONCAT(:text, '%') THEN 0
+                            WHEN LOWER(i.name) LIKE CONCAT('%', :text, '%') THEN 1
+                            ELSE 2
+                        END, i.id
+                        """, Long.class)
+                .setParameter("text", text.toLowerCase())
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.server.item;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск PostgreSQL: tsvector по названию (вес A) и описанию (вес B),
+ * GIN-индекс по тому же выражению (миграция postgresql/V5__item_search_index.sql),
+ * ранжирование ts_rank и префиксное совпадение слов.
+ * Только для PostgreSQL - на H2 используйте движок {@code like}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    // выражение должно совпадать с выражением индекса в миграции V5, иначе планировщик не использует GIN
+    private static final String DOCUMENT = "(setweight(to_tsvector('simple', coalesce(name, '')), 'A') || "
+            + "setweight(to_tsvector('simple', coalesce(description, '')), 'B'))";
+
+    private final EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> search(String text, int from, int size) {
+        String query = toPrefixQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        List<Number> ids = entityManager.createNativeQuery("""
+                        SELECT id
+                        FROM items, to_tsquery('simple', :query) q
+                        WHERE available = true
+                        AND %s @@ q
+                        ORDER BY ts_rank(%s, q) DESC, id
+                        OFFSET :from LIMIT :size
+                        """.formatted(DOCUMENT, DOCUMENT))
+                .setParameter("query", query)
+                .setParameter("from", from)
+                .setParameter("size", size)
+                .getResultList();
+        return ids.stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+    }
+
+    // "мощная дрел" -> "мощная:* & дрел:*"; спецсимволы tsquery отбрасываются
+    static String toPrefixQuery(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -5,10 +5,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.dto.request.ItemRequestDto;
 import ru.practicum.dto.request.ItemRequestResponseDto;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * TODO Sprint add-item-requests.
@@ -46,11 +48,17 @@ public class ItemRequestController {
         return itemRequestService.getAllRequests(userId, from, size);
     }
 
+    // при совпадении If-None-Match - 304 без загрузки запроса и его вещей
     @GetMapping("/{requestId}")
     public ItemRequestResponseDto getItemRequestById(
             @PathVariable Long requestId,
-            @RequestHeader("X-Sharer-User-Id") Long userId) {
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            WebRequest request) {
         log.info("GET /requests/{} - Получение запроса по ID пользователем {}", requestId, userId);
+        Optional<String> eTag = itemRequestService.getRequestETag(userId, requestId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         return itemRequestService.getRequestById(userId, requestId);
     }
 }
\ No newline at end of file
@@ -5,12 +5,21 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.server.common.ResourceVersion;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    // версия запроса для ETag: сам запрос и вещи, созданные по нему (каждая новая вещь добавляет не меньше 1)
+    @Query("SELECT new ru.practicum.server.common.ResourceVersion(ir.version, COALESCE(SUM(i.version + 1), 0)) " +
+            "FROM ItemRequest ir LEFT JOIN ir.items i " +
+            "WHERE ir.id = :requestId " +
+            "GROUP BY ir.id, ir.version")
+    Optional<ResourceVersion> findVersionById(@Param("requestId") Long requestId);
+
     // Найти все запросы пользователя, отсортированные по дате
     List<ItemRequest> findByRequesterIdOrderByCreatedDesc(Long requesterId);
 
@@ -23,10 +32,18 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     // Поиск всех запросов, созданных не указанным пользователем
     Page<ItemRequest> findByRequesterIdNot(Long requesterId, Pageable pageable);
 
+    // Страница id чужих запросов: пагинация выполняется в БД, без присоединения вещей
+    @Query("SELECT ir.id FROM ItemRequest ir " +
+            "WHERE ir.requester.id <> :requesterId " +
+            "ORDER BY ir.created DESC, ir.id DESC")
+    List<Long> findIdsByRequesterIdNot(@Param("requesterId") Long requesterId, Pageable pageable);
+
+    // Запросы страницы вместе с вещами одним IN-запросом (порядок как у страницы id)
     @Query("SELECT DISTINCT ir FROM ItemRequest ir " +
             "LEFT JOIN FETCH ir.items " +
-            "WHERE ir.requester.id <> :requesterId")
-    Page<ItemRequest> findByRequesterIdNotWithItems(@Param("requesterId") Long requesterId, Pageable pageable);
+            "WHERE ir.id IN :ids " +
+            "ORDER BY ir.created DESC, ir.id DESC")
+    List<ItemRequest> findByIdInWithItems(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT DISTINCT ir FROM ItemRequest ir " +
             "LEFT JOIN FETCH ir.items i " +
@@ -4,6 +4,7 @@ import ru.practicum.dto.request.ItemRequestDto;
 import ru.practicum.dto.request.ItemRequestResponseDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
@@ -19,6 +20,9 @@ public interface ItemRequestService {
     //получить запрос по ID
     ItemRequestResponseDto getRequestById(Long userId, Long requestId);
 
+    //ETag запроса; пусто, если запроса нет
+    Optional<String> getRequestETag(Long userId, Long requestId);
+
     //проверить существование запроса
     void checkRequestExists(Long requestId);
 
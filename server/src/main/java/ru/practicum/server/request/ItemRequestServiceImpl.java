@@ -3,19 +3,21 @@ package ru.practicum.server.request;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.request.ItemRequestDto;
 import ru.practicum.dto.request.ItemRequestResponseDto;
+import ru.practicum.server.common.OffsetPageRequest;
+import ru.practicum.server.event.DomainEventOutbox;
+import ru.practicum.server.event.DomainEventType;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.user.User;
 import ru.practicum.server.user.UserRepository;
+import ru.practicum.server.user.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +28,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
+    private final DomainEventOutbox domainEventOutbox;
 
     @Override
     @Transactional
@@ -39,6 +43,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequest.setCreated(LocalDateTime.now());
 
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
+        domainEventOutbox.append(DomainEventType.REQUEST_CREATED, savedRequest.getId(),
+                "requesterId", userId);
         log.info("Запрос создан и сохранен в БД с ID: {}", savedRequest.getId());
 
         return ItemRequestMapper.toResponseDto(savedRequest);
@@ -48,7 +54,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestResponseDto> getUserRequests(Long userId) {
         log.info("Получение запросы пользователя {}", userId);
 
-        findUserOrThrow(userId);
+        userService.checkUserExists(userId);
 
         List<ItemRequest> requests = itemRequestRepository.findByRequesterIdWithItems(userId);
 
@@ -61,13 +67,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestResponseDto> getAllRequests(Long userId, Integer from, Integer size) {
         log.info("Получение чужих запросов для пользователя {}, from={}, size={}", userId, from, size);
 
-        findUserOrThrow(userId);
+        userService.checkUserExists(userId);
 
-        Pageable pageable = createPageable(from, size);
-
-        List<ItemRequest> requests = itemRequestRepository
-                .findByRequesterIdNotWithItems(userId, pageable)
-                .getContent();
+        // Две фазы: страница id в БД, затем вещи только этих запросов одним IN-запросом.
+        // JOIN FETCH коллекции вместе с Pageable заставил бы Hibernate пагинировать в памяти
+        List<Long> ids = itemRequestRepository.findIdsByRequesterIdNot(userId, new OffsetPageRequest(from, size));
+        List<ItemRequest> requests = ids.isEmpty()
+                ? List.of()
+                : itemRequestRepository.findByIdInWithItems(ids);
 
         log.info("Найдено {} чужих запросов", requests.size());
 
@@ -78,7 +85,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public ItemRequestResponseDto getRequestById(Long userId, Long requestId) {
         log.info("Получение запроса {} для пользователя {}", requestId, userId);
 
-        findUserOrThrow(userId);
+        userService.checkUserExists(userId);
 
         // Этот метод уже загружает вещи через JOIN FETCH
         ItemRequest itemRequest = itemRequestRepository.findByIdWithItems(requestId)
@@ -92,6 +99,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toResponseDto(itemRequest);
     }
 
+    @Override
+    public Optional<String> getRequestETag(Long userId, Long requestId) {
+        userService.checkUserExists(userId);
+        return itemRequestRepository.findVersionById(requestId).map(version -> version.toETag("request"));
+    }
+
     @Override
     public void checkRequestExists(Long requestId) {
         if (!itemRequestRepository.existsById(requestId)) { // ИСПРАВЛЕНО: !
@@ -107,14 +120,4 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                     return new NotFoundException("Пользователь с ID " + userId + " не найден");
                 });
     }
-
-    private Pageable createPageable(Integer from, Integer size) {
-        int pageNumber = from / size;
-
-        return PageRequest.of(
-                pageNumber,
-                size,
-                Sort.by(Sort.Direction.DESC, "created")
-        );
-    }
 }
\ No newline at end of file
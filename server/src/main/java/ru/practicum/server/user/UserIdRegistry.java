@@ -0,0 +1,140 @@
+package ru.practicum.server.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Множество id существующих пользователей в памяти процесса (битовая карта).
+ * <p>
+ * id выдаются последовательно, поэтому битовая карта занимает около бита на пользователя.
+ * Положительный ответ считается достоверным: бит снимается после фиксации удаления.
+ * Отрицательный ответ не окончательный (пользователь мог быть создан другим узлом
+ * или иметь id вне диапазона карты) - такие случаи проверяются через БД.
+ * <p>
+ * id, найденный в БД, добавляется с эпохой удалений этого id, прочитанной до запроса к БД:
+ * если удаление зафиксировали между запросом и добавлением, эпоха уже другая и id не добавляется.
+ * <p>
+ * Реестр локален для узла: он видит только удаления, прошедшие через этот узел. При нескольких
+ * узлах сервера его нужно выключить (shareit.user.id-registry.enabled=false) - тогда каждая
+ * проверка идет в БД. Ретранслятор outbox доставляет событие одному узлу, а не всем, поэтому
+ * для вытеснения на остальных узлах он не подходит.
+ */
+@Slf4j
+@Component
+public class UserIdRegistry {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+
+    private final BitSet ids = new BitSet();
+    // число зафиксированных удалений по id; id без удалений в карте нет
+    private final Map<Long, Integer> deleteEpochs = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserIdRegistry(UserRepository userRepository,
+                          @Value("${shareit.user.id-registry.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Реестр id пользователей выключен: наличие пользователя проверяется в БД");
+            return;
+        }
+        int count = 0;
+        for (Long id : userRepository.findAllIds()) {
+            add(id, 0);
+            count++;
+        }
+        log.info("Реестр id пользователей прогрет: {} пользователей", count);
+    }
+
+    public boolean contains(Long id) {
+        if (!enabled || !fits(id)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return ids.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // эпоха удалений id; читается до проверки пользователя в БД и передается в add
+    public int deleteEpoch(Long id) {
+        lock.readLock().lock();
+        try {
+            return deleteEpochs.getOrDefault(id, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // пользователь, найденный в БД, но отсутствующий в карте; не добавляется, если после
+    // чтения эпохи удаление этого id уже зафиксировано
+    public void add(Long id, int deleteEpoch) {
+        if (!enabled || !fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (deleteEpochs.getOrDefault(id, 0) == deleteEpoch) {
+                ids.set(id.intValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onCreated(Long id) {
+        int deleteEpoch = deleteEpoch(id);
+        afterCommit(() -> add(id, deleteEpoch));
+    }
+
+    public void onDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private void remove(Long id) {
+        if (!enabled || !fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            deleteEpochs.merge(id, 1, Integer::sum);
+            ids.clear(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean fits(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
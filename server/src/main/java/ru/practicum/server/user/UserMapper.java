@@ -21,8 +21,8 @@ public class UserMapper {
     }
 
     public static User toUser(UserDto userDto) {
+        // id нового пользователя выдает последовательность
         User user = new User();
-        user.setId(userDto.getId());
         user.setName(userDto.getName());
         user.setEmail(userDto.getEmail());
         return user;
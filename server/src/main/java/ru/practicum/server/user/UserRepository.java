@@ -1,6 +1,9 @@
 package ru.practicum.server.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
@@ -8,4 +11,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmailAndIdNot(String email, Long id);
 
     boolean existsByEmail(String email);
+
+    // id всех пользователей (прогрев реестра id)
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
 }
\ No newline at end of file
@@ -16,6 +16,9 @@ public interface UserService {
     //поиск пользователя по id для внутренних нужд проекта
     User findUserById(Long userId);
 
+    //проверка существования пользователя без загрузки сущности
+    void checkUserExists(Long userId);
+
     //поиск пользователя по id для пользователя
     UserDto findUserByIdToDto(Long userId);
 
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.common.EntityCacheEvictor;
 import ru.practicum.server.exception.ConflictException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
@@ -18,6 +19,8 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final UserIdRegistry userIdRegistry;
 
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
 
@@ -40,6 +43,7 @@ public class UserServiceImpl implements UserService {
         }
         User user = UserMapper.toUser(userDto);
         User savedUser = userRepository.save(user);
+        userIdRegistry.onCreated(savedUser.getId());
 
         log.info("Пользователь создан: id={}, email={}", savedUser.getId(), savedUser.getEmail());
 
@@ -78,6 +82,7 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("Данные пользователя не изменились");
         }
         User updatedUser = userRepository.save(existingUser);
+        entityCacheEvictor.evictAfterCommit(User.class, userId);
         return UserMapper.toUserDto(updatedUser);
     }
 
@@ -93,6 +98,21 @@ public class UserServiceImpl implements UserService {
                 });
     }
 
+    //проверка существования: реестр id в памяти, при отрицательном ответе - запрос к БД
+    @Override
+    public void checkUserExists(Long userId) {
+        if (userIdRegistry.contains(userId)) {
+            return;
+        }
+        // эпоха до запроса к БД: удаление, зафиксированное после existsById, не даст вернуть id в реестр
+        int deleteEpoch = userIdRegistry.deleteEpoch(userId);
+        if (!userRepository.existsById(userId)) {
+            log.error("Пользователь с id = {} не найден", userId);
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+        userIdRegistry.add(userId, deleteEpoch);
+    }
+
     //поиск пользователя по id для пользователя
     @Override
     public UserDto findUserByIdToDto(Long userId) {
@@ -106,6 +126,8 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long userId) {
         findUserById(userId);
         userRepository.deleteById(userId);
+        entityCacheEvictor.evictAfterCommit(User.class, userId);
+        userIdRegistry.onDeleted(userId);
         log.info("Пользователь с ID {} удален", userId);
     }
 }
\ No newline at end of file
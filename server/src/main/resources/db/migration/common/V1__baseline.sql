@@ -1,30 +1,40 @@
--- Таблица пользователей (с исправлениями)
+-- Исходная схема ShareIt: id из IDENTITY, только первичные и внешние ключи.
+-- Синтаксис общий для PostgreSQL и H2.
+
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
-  registration_date TIMESTAMP,
+  registration_date TIMESTAMP WITH TIME ZONE,
   state VARCHAR(50),
 
   CONSTRAINT pk_user PRIMARY KEY (id),
   CONSTRAINT uq_user_email UNIQUE (email)
 );
 
--- Таблица вещей
+CREATE TABLE IF NOT EXISTS requests (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  description VARCHAR(1000),
+  requester_id BIGINT,
+  created TIMESTAMP,
+
+  CONSTRAINT pk_request PRIMARY KEY (id),
+  CONSTRAINT fk_request_requester FOREIGN KEY (requester_id) REFERENCES users(id)
+);
+
 CREATE TABLE IF NOT EXISTS items (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
-  description TEXT,
+  description VARCHAR(1000),
   available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
   request_id BIGINT,
 
   CONSTRAINT pk_item PRIMARY KEY (id),
-  CONSTRAINT fk_item_owner FOREIGN KEY (owner_id)
-      REFERENCES users(id)
+  CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users(id),
+  CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests(id)
 );
 
--- Таблица бронирования вещей (с исправлениями)
 CREATE TABLE IF NOT EXISTS bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   item_id BIGINT NOT NULL,
@@ -32,21 +42,21 @@ CREATE TABLE IF NOT EXISTS bookings (
   start_time TIMESTAMP NOT NULL,
   end_time TIMESTAMP NOT NULL,
   status VARCHAR(20) NOT NULL,
-  created_date TIMESTAMP,
+  created_date TIMESTAMP NOT NULL,
 
   CONSTRAINT pk_booking PRIMARY KEY (id),
   CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items(id),
   CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id)
 );
 
--- Таблица комментариев
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-  text VARCHAR(512) NOT NULL,
+  text VARCHAR(1000) NOT NULL,
   item_id BIGINT NOT NULL,
   author_id BIGINT NOT NULL,
   created TIMESTAMP NOT NULL,
+
   CONSTRAINT pk_comments PRIMARY KEY (id),
-  CONSTRAINT fk_item FOREIGN KEY (item_id) REFERENCES items(id),
-  CONSTRAINT fk_users FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+  CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items(id),
+  CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users(id)
+);
@@ -0,0 +1,30 @@
+-- Индексы под пути доступа репозиториев. Порядок колонок: сначала равенство, затем сортировка/диапазон.
+
+-- ItemRepository.findByOwnerId*, streamByOwnerId (ORDER BY id, keyset после afterId),
+-- списки бронирований владельца (соединение bookings -> items по owner_id)
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+
+-- ItemRepository.findByRequestId и вещи запросов (ItemRequestRepository ... LEFT JOIN FETCH ir.items)
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- бронирования пользователя: WHERE booker_id [AND status / start_time / end_time] ORDER BY start_time DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_time DESC, id DESC);
+
+-- бронирования вещи: списки владельца, проверка пересечений (existsByItemIdAndStatusInAndStartBeforeAndEndAfter,
+-- findActiveIntervals по вещам), последнее/ближайшее бронирование (findLastAndNextApprovedBookings)
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_time DESC, id DESC);
+
+-- existsByBookerIdAndItemIdAndEndBefore (право оставить комментарий)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_end ON bookings (booker_id, item_id, end_time);
+
+-- findActiveIntervals(now): прогрев индекса интервалов, только незавершенные бронирования
+CREATE INDEX IF NOT EXISTS idx_bookings_end_status ON bookings (end_time, status);
+
+-- CommentRepository.findByItemId / findByItemIdIn, число комментариев для ETag вещи
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id, created);
+
+-- ItemRequestRepository.findByRequesterIdOrderByCreatedDesc и запросы пользователя с вещами
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC);
+
+-- ItemRequestRepository.findIdsByRequesterIdNot: страница чужих запросов ORDER BY created DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,12 @@
+-- Число комментариев хранится в вещи: просмотр вещи не считает комментарии, счетчик растет при добавлении
+ALTER TABLE items ADD COLUMN comment_count BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id);
+
+-- created отдается клиенту с точностью до секунды и возвращается в курсоре страницы - храним так же
+UPDATE comments SET created = DATE_TRUNC('second', created) WHERE created <> DATE_TRUNC('second', created);
+
+-- страницы комментариев вещи: WHERE item_id ORDER BY created DESC, id DESC (keyset по (created, id)),
+-- последние комментарии нескольких вещей (CommentRepository.findLatestIdsByItemIds)
+DROP INDEX IF EXISTS idx_comments_item;
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
@@ -0,0 +1,35 @@
+-- Денормализованное представление вещи для чтения (ItemView): поля вещи, число комментариев,
+-- последнее и ближайшее подтвержденные бронирования. Обновляется в транзакциях ItemServiceImpl
+-- и BookingServiceImpl, пересобирается из базовых таблиц (ItemViewProjector.rebuild).
+CREATE TABLE IF NOT EXISTS item_view (
+  item_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  description VARCHAR(1000),
+  available BOOLEAN NOT NULL,
+  comment_count BIGINT DEFAULT 0 NOT NULL,
+  last_booking_start TIMESTAMP,
+  last_booking_end TIMESTAMP,
+  next_booking_start TIMESTAMP,
+  next_booking_end TIMESTAMP,
+  -- окно бронирований верно, пока не наступило это время (начало ближайшего); NULL - без срока
+  bookings_valid_until TIMESTAMP,
+
+  CONSTRAINT pk_item_view PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_view_item FOREIGN KEY (item_id) REFERENCES items(id)
+);
+
+-- вещи владельца страницами: WHERE owner_id ORDER BY item_id (keyset после afterId)
+CREATE INDEX IF NOT EXISTS idx_item_view_owner ON item_view (owner_id, item_id);
+
+-- устаревшие окна бронирований (ItemViewProjector.refreshExpired)
+CREATE INDEX IF NOT EXISTS idx_item_view_valid_until ON item_view (bookings_valid_until);
+
+-- Поля вещей переносятся сразу, а окна бронирований помечаются устаревшими и считаются
+-- приложением: "сейчас" в БД и в приложении может отличаться часовым поясом
+INSERT INTO item_view (item_id, owner_id, name, description, available, comment_count,
+                       bookings_valid_until)
+SELECT i.id, i.owner_id, i.name, i.description, i.available, i.comment_count,
+       TIMESTAMP '1970-01-01 00:00:00'
+FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_view v WHERE v.item_id = i.id);
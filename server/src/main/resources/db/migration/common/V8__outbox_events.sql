@@ -0,0 +1,17 @@
+-- Исходящие доменные события (transactional outbox): пишутся в транзакции изменения,
+-- ретранслятор (OutboxRelay) доставляет их подписчикам и удаляет доставленные
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGINT NOT NULL,
+  event_type VARCHAR(50) NOT NULL,
+  aggregate_type VARCHAR(50) NOT NULL,
+  aggregate_id BIGINT NOT NULL,
+  payload VARCHAR(4000) NOT NULL,
+  created TIMESTAMP NOT NULL,
+  -- неудачные попытки доставки
+  attempts INT DEFAULT 0 NOT NULL,
+
+  CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+-- ретранслятор читает события по первичному ключу: ORDER BY id
@@ -0,0 +1,18 @@
+-- PostgreSQL: снятие IDENTITY и перенос последовательностей на максимальный id существующих данных.
+-- Pooled-оптимизатор считает полученное значение верхней границей блока: после setval(max) следующий
+-- блок начинается с max + 1. Для пустых таблиц счетчики не трогаются и остаются с 1.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('users_seq', MAX(id)) FROM users HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('requests_seq', MAX(id)) FROM requests HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('items_seq', MAX(id)) FROM items HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('bookings_seq', MAX(id)) FROM bookings HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('comments_seq', MAX(id)) FROM comments HAVING MAX(id) IS NOT NULL;
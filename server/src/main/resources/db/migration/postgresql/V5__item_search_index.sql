@@ -0,0 +1,6 @@
+-- GIN-индекс полнотекстового поиска (движок postgres, PostgresItemSearchEngine).
+-- Выражение должно совпадать с PostgresItemSearchEngine.DOCUMENT, иначе планировщик не использует индекс.
+CREATE INDEX IF NOT EXISTS idx_items_search ON items USING GIN (
+  (setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+   setweight(to_tsvector('simple', coalesce(description, '')), 'B'))
+);
@@ -0,0 +1,184 @@
+package ru.practicum.server;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы запросов репозиториев на PostgreSQL: пути доступа из V4__access_path_indexes.sql не читают таблицы целиком.
+// Запускается профилем postgres-it (mvn -Ppostgres-it test, адрес БД - -Dshareit.it.postgres.url): миграции
+// применяются в отдельной схеме, она заполняется generate_series и удаляется после проверки
+@EnabledIfSystemProperty(named = AccessPathExplainTest.URL_PROPERTY, matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AccessPathExplainTest {
+
+    static final String URL_PROPERTY = "shareit.it.postgres.url";
+
+    private static final int USERS = 20_000;
+    private static final int REQUESTS = 20_000;
+    private static final int ITEMS = 100_000;
+    private static final int BOOKINGS = 300_000;
+    private static final int COMMENTS = 200_000;
+
+    private final String schema = "shareit_explain_" + System.currentTimeMillis();
+    private Connection connection;
+
+    @BeforeAll
+    void migrateAndSeed() throws SQLException {
+        String url = System.getProperty(URL_PROPERTY);
+        String username = System.getProperty("shareit.it.postgres.username", "postgres");
+        String password = System.getProperty("shareit.it.postgres.password", "");
+
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(schema)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, username, password);
+        execute("SET search_path TO " + schema);
+        // 5 вещей у владельца, каждая пятая - по запросу; бронирования за ~1000 дней, незавершенных около 1%
+        execute("INSERT INTO users (id, name, email) "
+                + "SELECT g, 'user' || g, 'user' || g || '@shareit.ru' FROM generate_series(1, " + USERS + ") g");
+        execute("INSERT INTO requests (id, description, requester_id, created) "
+                + "SELECT g, 'request' || g, g % " + USERS + " + 1, now() - g * interval '1 minute' "
+                + "FROM generate_series(1, " + REQUESTS + ") g");
+        execute("INSERT INTO items (id, name, description, available, owner_id, request_id) "
+                + "SELECT g, 'item' || g, 'description' || g, true, g % " + USERS + " + 1, "
+                + "CASE WHEN g % 5 = 0 THEN g / 5 % " + REQUESTS + " + 1 END "
+                + "FROM generate_series(1, " + ITEMS + ") g");
+        execute("INSERT INTO bookings (id, item_id, booker_id, start_time, end_time, status, created_date) "
+                + "SELECT g, g % " + ITEMS + " + 1, g * 7 % " + USERS + " + 1, "
+                + "now() - (g % 1000 - 10) * interval '1 day', now() - (g % 1000 - 11) * interval '1 day', "
+                + "(ARRAY['APPROVED', 'WAITING', 'REJECTED', 'APPROVED'])[g % 4 + 1], now() "
+                + "FROM generate_series(1, " + BOOKINGS + ") g");
+        execute("INSERT INTO comments (id, text, item_id, author_id, created) "
+                + "SELECT g, 'comment' || g, g % " + ITEMS + " + 1, g % " + USERS + " + 1, "
+                + "date_trunc('second', now() - g * interval '1 second') "
+                + "FROM generate_series(1, " + COMMENTS + ") g");
+        execute("ANALYZE users, requests, items, bookings, comments");
+    }
+
+    @AfterAll
+    void dropSchema() throws SQLException {
+        if (connection != null) {
+            execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> accessPaths() {
+        return Stream.of(
+                accessPath("вещи владельца (idx_items_owner)",
+                        "SELECT * FROM items WHERE owner_id = 123 ORDER BY id LIMIT 10"),
+                accessPath("вещи владельца после afterId (idx_items_owner)",
+                        "SELECT * FROM items WHERE owner_id = 123 AND id > 5000 ORDER BY id LIMIT 10"),
+                accessPath("вещи по запросу (idx_items_request)",
+                        "SELECT * FROM items WHERE request_id = 321"),
+                accessPath("запросы пользователя с вещами (idx_requests_requester_created, idx_items_request)",
+                        "SELECT r.*, i.* FROM requests r LEFT JOIN items i ON i.request_id = r.id "
+                                + "WHERE r.requester_id = 321 ORDER BY r.created DESC"),
+                accessPath("страница чужих запросов (idx_requests_created)",
+                        "SELECT id FROM requests WHERE requester_id <> 321 "
+                                + "ORDER BY created DESC, id DESC OFFSET 20 LIMIT 10"),
+                accessPath("чужие запросы страницы с вещами (pk_request, idx_items_request)",
+                        "SELECT r.*, i.* FROM requests r LEFT JOIN items i ON i.request_id = r.id "
+                                + "WHERE r.id IN (10, 20, 30, 40, 50) ORDER BY r.created DESC, r.id DESC"),
+                accessPath("бронирования пользователя (idx_bookings_booker_start)",
+                        "SELECT * FROM bookings WHERE booker_id = 456 "
+                                + "ORDER BY start_time DESC, id DESC LIMIT 10"),
+                accessPath("ожидающие бронирования пользователя (idx_bookings_booker_start)",
+                        "SELECT * FROM bookings WHERE booker_id = 456 AND status = 'WAITING' "
+                                + "ORDER BY start_time DESC, id DESC LIMIT 10"),
+                accessPath("завершенные бронирования пользователя (idx_bookings_booker_start)",
+                        "SELECT * FROM bookings WHERE booker_id = 456 AND end_time < now() "
+                                + "ORDER BY start_time DESC, id DESC LIMIT 10"),
+                accessPath("бронирования владельца (idx_items_owner, idx_bookings_item_start)",
+                        "SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.owner_id = 123 "
+                                + "ORDER BY b.start_time DESC, b.id DESC LIMIT 10"),
+                accessPath("проверка пересечения (idx_bookings_item_start)",
+                        "SELECT 1 FROM bookings WHERE item_id = 789 AND status IN ('APPROVED', 'WAITING') "
+                                + "AND start_time < now() + interval '2 day' AND end_time > now() + interval '1 day' "
+                                + "LIMIT 1"),
+                accessPath("активные интервалы вещей (idx_bookings_item_start)",
+                        "SELECT id, item_id, start_time, end_time FROM bookings WHERE item_id IN (789, 790, 791) "
+                                + "AND status IN ('APPROVED', 'WAITING') AND end_time > now() "
+                                + "ORDER BY start_time, id"),
+                accessPath("прогрев индекса интервалов (idx_bookings_end_status)",
+                        "SELECT id, item_id, start_time, end_time FROM bookings "
+                                + "WHERE status IN ('APPROVED', 'WAITING') AND end_time > now()"),
+                accessPath("последнее и ближайшее бронирования (idx_bookings_item_start)", """
+                        SELECT w.item_id, w.start_time, w.end_time, w.kind
+                        FROM (
+                            SELECT b.item_id, b.start_time, b.end_time, 'LAST' AS kind,
+                                   ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_time DESC) AS rn
+                            FROM bookings b
+                            WHERE b.item_id IN (789, 790, 791) AND b.status = 'APPROVED' AND b.start_time < now()
+                            UNION ALL
+                            SELECT b.item_id, b.start_time, b.end_time, 'NEXT' AS kind,
+                                   ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_time ASC) AS rn
+                            FROM bookings b
+                            WHERE b.item_id IN (789, 790, 791) AND b.status = 'APPROVED' AND b.start_time > now()
+                        ) w
+                        WHERE w.rn = 1
+                        """),
+                accessPath("право оставить комментарий (idx_bookings_booker_item_end)",
+                        "SELECT 1 FROM bookings WHERE booker_id = 456 AND item_id = 789 AND end_time < now() "
+                                + "LIMIT 1"),
+                accessPath("комментарии вещи (idx_comments_item_created)",
+                        "SELECT * FROM comments WHERE item_id = 789 ORDER BY created DESC, id DESC LIMIT 10"),
+                accessPath("последние комментарии вещей (idx_comments_item_created)", """
+                        SELECT c.id
+                        FROM (
+                            SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY created DESC, id DESC) AS rn
+                            FROM comments
+                            WHERE item_id IN (789, 790, 791)
+                        ) c
+                        WHERE c.rn <= 10
+                        """));
+    }
+
+    @ParameterizedTest
+    @MethodSource("accessPaths")
+    void accessPathUsesIndex(String sql) throws SQLException {
+        String plan = explain(sql);
+
+        assertThat(plan).doesNotContain("Seq Scan");
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Arguments accessPath(String name, String sql) {
+        return Arguments.of(Named.of(name, sql));
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.booking.Booking;
+import ru.practicum.server.booking.BookingRepository;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.item.ItemService;
+import ru.practicum.server.item.ItemViewProjector;
+import ru.practicum.server.request.ItemRequest;
+import ru.practicum.server.request.ItemRequestRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Условные GET вещи, бронирования и запроса: тот же ETag - 304 без тела, изменение ресурса
+// или данных, входящих в ответ, - новый ETag
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etag;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ETagTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemViewProjector itemViewProjector;
+
+    private User owner;
+    private User booker;
+    private int items;
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+    }
+
+    @Test
+    void sameItemETagIsNotModified() throws Exception {
+        Item item = item();
+
+        assertNotModified(() -> get("/items/{id}", item.getId()));
+    }
+
+    @Test
+    void itemETagChangesAfterUpdate() throws Exception {
+        Item item = item();
+
+        assertETagChanges(() -> get("/items/{id}", item.getId()),
+                patch("/items/{id}", item.getId()).header(USER_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"renamed\"}"));
+    }
+
+    @Test
+    void itemETagChangesAfterNewComment() throws Exception {
+        Item item = item();
+        completedBooking(item, booker);
+
+        assertETagChanges(() -> get("/items/{id}", item.getId()), comment(item, booker));
+    }
+
+    @Test
+    void itemETagChangesAfterCommentAuthorRename() throws Exception {
+        Item item = item();
+        User author = userRepository.save(user("author"));
+        completedBooking(item, author);
+        mockMvc.perform(comment(item, author)).andExpect(status().isOk());
+
+        assertETagChanges(() -> get("/items/{id}", item.getId()),
+                patch("/users/{id}", author.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"renamed author\"}"));
+    }
+
+    @Test
+    void missingItemHasNoETag() {
+        assertThat(itemService.getItemETag(Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void bookingETagChangesAfterApproval() throws Exception {
+        Item item = item();
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setCreatedDate(LocalDateTime.now());
+        Long bookingId = bookingRepository.save(booking).getId();
+        Supplier<MockHttpServletRequestBuilder> read = () -> get("/bookings/{id}", bookingId)
+                .header(USER_HEADER, booker.getId());
+
+        assertNotModified(read);
+        assertETagChanges(read, patch("/bookings/{id}", bookingId).param("approved", "true")
+                .header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void requestETagChangesAfterNewItemForRequest() throws Exception {
+        ItemRequest request = new ItemRequest();
+        request.setRequester(booker);
+        request.setDescription("need a drill");
+        request.setCreated(LocalDateTime.now());
+        Long requestId = itemRequestRepository.save(request).getId();
+        Supplier<MockHttpServletRequestBuilder> read = () -> get("/requests/{id}", requestId)
+                .header(USER_HEADER, booker.getId());
+
+        assertNotModified(read);
+        assertETagChanges(read, post("/items").header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"drill\",\"description\":\"drill\",\"available\":true,\"requestId\":"
+                        + requestId + "}"));
+    }
+
+    private void assertNotModified(Supplier<MockHttpServletRequestBuilder> read) throws Exception {
+        String eTag = eTag(read.get());
+
+        mockMvc.perform(read.get().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    private void assertETagChanges(Supplier<MockHttpServletRequestBuilder> read,
+                                   MockHttpServletRequestBuilder change) throws Exception {
+        String before = eTag(read.get());
+
+        mockMvc.perform(change).andExpect(status().is2xxSuccessful());
+
+        String after = mockMvc.perform(read.get().header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(after).isNotNull().isNotEqualTo(before);
+    }
+
+    private String eTag(MockHttpServletRequestBuilder read) throws Exception {
+        String eTag = mockMvc.perform(read)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+
+    private MockHttpServletRequestBuilder comment(Item item, User author) {
+        return post("/items/{id}/comment", item.getId()).header(USER_HEADER, author.getId())
+                .contentType(MediaType.APPLICATION_JSON).content("{\"text\":\"good\"}");
+    }
+
+    private Item item() {
+        Item item = new Item();
+        item.setName("item" + ++items);
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        Item saved = itemRepository.save(item);
+        itemViewProjector.rebuild();
+        return saved;
+    }
+
+    private void completedBooking(Item item, User user) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(user);
+        booking.setStart(LocalDateTime.now().minusDays(2));
+        booking.setEnd(LocalDateTime.now().minusDays(1));
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setCreatedDate(LocalDateTime.now().minusDays(3));
+        bookingRepository.save(booking);
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.server;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.booking.Booking;
+import ru.practicum.server.booking.BookingRepository;
+import ru.practicum.server.item.Comment;
+import ru.practicum.server.item.CommentRepository;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.item.ItemViewProjector;
+import ru.practicum.server.request.ItemRequest;
+import ru.practicum.server.request.ItemRequestRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число запросов к БД на чтение не зависит от числа связанных строк: 1 и 50 вещей, комментариев,
+// авторов, бронирований и запросов дают одинаковое число подготовленных выражений
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:read-statements;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadStatementsTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemViewProjector itemViewProjector;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Fixture single;
+    private Fixture many;
+
+    @BeforeAll
+    void seed() {
+        single = seed("single", 1);
+        many = seed("many", 50);
+        itemViewProjector.rebuild();
+    }
+
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+                endpoint("GET /items/{id}", f -> get("/items/{id}", f.item().getId())),
+                endpoint("GET /items", f -> get("/items").param("size", "50")
+                        .header(USER_HEADER, f.owner().getId())),
+                endpoint("GET /items/{id}/comments", f -> get("/items/{id}/comments", f.item().getId())
+                        .param("size", "50")),
+                endpoint("GET /bookings/{id}", f -> get("/bookings/{id}", f.booking().getId())
+                        .header(USER_HEADER, f.owner().getId())),
+                endpoint("GET /bookings", f -> get("/bookings").param("size", "50")
+                        .header(USER_HEADER, f.booker().getId())),
+                endpoint("GET /bookings/owner", f -> get("/bookings/owner").param("size", "50")
+                        .header(USER_HEADER, f.owner().getId())),
+                endpoint("GET /requests", f -> get("/requests")
+                        .header(USER_HEADER, f.owner().getId())),
+                endpoint("GET /requests/all", f -> get("/requests/all").param("size", "50")
+                        .header(USER_HEADER, f.booker().getId())),
+                endpoint("GET /requests/{id}", f -> get("/requests/{id}", f.request().getId())
+                        .header(USER_HEADER, f.booker().getId())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("endpoints")
+    void statementsDoNotGrowWithRelatedRows(Function<Fixture, RequestBuilder> endpoint) throws Exception {
+        long singleStatements = countStatements(endpoint.apply(single));
+        long manyStatements = countStatements(endpoint.apply(many));
+
+        assertThat(manyStatements).as("выражений при n = 50 (при n = 1: %d)", singleStatements)
+                .isEqualTo(singleStatements);
+    }
+
+    // оба замера в одинаковом состоянии: пользователь уже в реестре id, кэш второго уровня пуст
+    private long countStatements(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().isOk());
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    // n вещей владельца, у каждой комментарий своего автора; у первой вещи - комментарии всех n авторов.
+    // Арендатор бронирует каждую вещь, каждый автор - свою; n запросов владельца, на первый
+    // предложены n вещей разных авторов
+    private Fixture seed(String prefix, int n) {
+        User owner = userRepository.save(user(prefix + "-owner"));
+        User booker = userRepository.save(user(prefix + "-booker"));
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            authors.add(userRepository.save(user(prefix + "-author" + i)));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ItemRequest request = new ItemRequest();
+            request.setRequester(owner);
+            request.setDescription(prefix + " request" + i);
+            request.setCreated(now.minusHours(i));
+            requests.add(itemRequestRepository.save(request));
+        }
+
+        List<Item> items = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Item item = itemRepository.save(item(prefix + " item" + i, owner, requests.get(i)));
+            items.add(item);
+            itemRepository.save(item(prefix + " offer" + i, authors.get(i), requests.get(0)));
+
+            comments.add(comment(items.get(0), authors.get(i), now.minusMinutes(i)));
+            if (i > 0) {
+                comments.add(comment(item, authors.get(i), now.minusMinutes(i)));
+            }
+            bookings.add(booking(item, booker, now.plusDays(i + 1), BookingStatus.APPROVED));
+            bookings.add(booking(item, authors.get(i), now.minusDays(i + 10), BookingStatus.APPROVED));
+        }
+        commentRepository.saveAll(comments);
+        bookingRepository.saveAll(bookings);
+        return new Fixture(owner, booker, items.get(0), bookings.get(0), requests.get(0));
+    }
+
+    private static Arguments endpoint(String name, Function<Fixture, RequestBuilder> request) {
+        return Arguments.of(Named.of(name, request));
+    }
+
+    private static Item item(String name, User owner, ItemRequest request) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequest(request);
+        return item;
+    }
+
+    private static Comment comment(Item item, User author, LocalDateTime created) {
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setText("comment");
+        comment.setCreated(created);
+        return comment;
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(12));
+        booking.setStatus(status);
+        booking.setCreatedDate(LocalDateTime.now());
+        return booking;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+
+    record Fixture(User owner, User booker, Item item, Booking booking, ItemRequest request) {
+    }
+}
@@ -0,0 +1,187 @@
+package ru.practicum.server.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.dto.booking.BookingBatchResultDto;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Параллельные бронирования одной вещи: из пересекающихся интервалов принимается ровно один,
+// одиночные бронирования и пакеты на общих вещах не блокируют друг друга по кругу
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-admission;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingAdmissionTest {
+
+    private static final int THREADS = 16;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private final List<User> bookers = new ArrayList<>();
+    private LocalDateTime start;
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(user("owner"));
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(user("booker" + i)));
+        }
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void onlyOneOfOverlappingBookingsIsCreated() throws Exception {
+        Item item = itemRepository.save(item("single"));
+
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = bookers.get(i);
+            LocalDateTime bookingStart = start.plusMinutes(i);
+            bookings.add(() -> {
+                try {
+                    bookingService.createBooking(booker.getId(),
+                            booking(item.getId(), bookingStart, bookingStart.plusHours(2)));
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            });
+        }
+
+        List<Boolean> created = runTogether(bookings);
+
+        assertThat(created).filteredOn(Boolean::booleanValue).hasSize(1);
+        assertThat(bookingsOf(List.of(item))).containsExactly(Map.entry(item.getId(), 1L));
+    }
+
+    // пакеты берут блокировки вещей в разном порядке списка, одиночные бронирования - по одной вещи
+    @Test
+    void batchesAndSinglesOnSharedItemsDoNotDeadlockOrDoubleBook() throws Exception {
+        List<Item> items = List.of(item("shared0"), item("shared1"), item("shared2")).stream()
+                .map(itemRepository::save)
+                .toList();
+
+        List<Callable<Long>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = bookers.get(i);
+            LocalDateTime bookingStart = start.plusDays(10).plusMinutes(i);
+            if (i % 2 == 0) {
+                List<Item> order = new ArrayList<>(items);
+                if (i % 4 == 0) {
+                    order = order.reversed();
+                }
+                List<BookingDto> batch = order.stream()
+                        .map(item -> booking(item.getId(), bookingStart, bookingStart.plusHours(2)))
+                        .toList();
+                requests.add(() -> bookingService.createBookings(booker.getId(), batch).stream()
+                        .filter(result -> result.getStatus() == 201)
+                        .count());
+            } else {
+                Item item = items.get(i % items.size());
+                requests.add(() -> {
+                    try {
+                        bookingService.createBooking(booker.getId(),
+                                booking(item.getId(), bookingStart, bookingStart.plusHours(2)));
+                        return 1L;
+                    } catch (ValidationException e) {
+                        return 0L;
+                    }
+                });
+            }
+        }
+
+        List<Long> created = runTogether(requests);
+
+        assertThat(created.stream().mapToLong(Long::longValue).sum()).isEqualTo(items.size());
+        assertThat(bookingsOf(items)).containsOnly(items.stream()
+                .map(item -> Map.entry(item.getId(), 1L))
+                .toArray(Map.Entry[]::new));
+    }
+
+    // все задачи стартуют одновременно; зависание или ошибка допуска (ConflictException) валит тест
+    private <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Long, Long> bookingsOf(List<Item> items) {
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        return bookingRepository.findAll().stream()
+                .map(booking -> booking.getItem().getId())
+                .filter(itemIds::contains)
+                .collect(Collectors.groupingBy(itemId -> itemId, Collectors.counting()));
+    }
+
+    private Item item(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    private static BookingDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto booking = new BookingDto();
+        booking.setItemId(itemId);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.server.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.dto.booking.BookingBatchResultDto;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Пакет бронирований проверяется так же, как одиночное бронирование: ошибка элемента - результат
+// по его позиции, остальные элементы создаются
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-batch;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingBatchTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item unavailable;
+    private LocalDateTime start;
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        unavailable = itemRepository.save(item("unavailable", false));
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void invalidElementsFailAtTheirIndexes() {
+        Item item = itemRepository.save(item("mixed", true));
+        Item ownItem = itemRepository.save(item("own", true));
+
+        List<BookingDto> batch = Arrays.asList(
+                booking(item.getId(), start, start.plusHours(1)),
+                booking(item.getId(), start.plusHours(2), start.plusHours(2)),
+                booking(item.getId(), start.plusHours(4), start.plusHours(3)),
+                null,
+                booking(null, start, start.plusHours(1)),
+                booking(Long.MAX_VALUE, start, start.plusHours(1)),
+                booking(unavailable.getId(), start, start.plusHours(1)),
+                booking(item.getId(), start.minusDays(2), start.minusDays(2).plusHours(1)),
+                booking(item.getId(), start.plusHours(5), start.plusHours(6)));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(), batch);
+        List<BookingBatchResultDto> ownResults = bookingService.createBookings(owner.getId(),
+                List.of(booking(ownItem.getId(), start, start.plusHours(1))));
+
+        assertThat(results).extracting(BookingBatchResultDto::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(results).extracting(BookingBatchResultDto::getStatus)
+                .containsExactly(201, 400, 400, 400, 400, 404, 400, 400, 201);
+        assertThat(results.get(3).getError()).isEqualTo("Элемент пакета не может быть пустым");
+        assertThat(ownResults).extracting(BookingBatchResultDto::getStatus).containsExactly(403);
+        assertThat(bookingRepository.findAll()).filteredOn(b -> b.getItem().getId().equals(item.getId()))
+                .extracting(Booking::getStart)
+                .containsExactlyInAnyOrder(start, start.plusHours(5));
+    }
+
+    @Test
+    void overlappingElementsOfOneBatch() {
+        Item item = itemRepository.save(item("overlap", true));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(), List.of(
+                booking(item.getId(), start, start.plusHours(2)),
+                booking(item.getId(), start.plusHours(1), start.plusHours(3)),
+                booking(item.getId(), start.plusHours(2), start.plusHours(4))));
+
+        assertThat(results).extracting(BookingBatchResultDto::getStatus).containsExactly(201, 400, 201);
+        assertThat(results.get(1).getError()).isEqualTo("На выбранные даты уже есть бронирование");
+    }
+
+    @Test
+    void singleBookingWithEndEqualToStartIsRejected() {
+        Item item = itemRepository.save(item("single", true));
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(),
+                booking(item.getId(), start, start)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private Item item(String name, boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(available);
+        item.setOwner(owner);
+        return item;
+    }
+
+    private static BookingDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto booking = new BookingDto();
+        booking.setItemId(itemId);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.server.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.booking.BookingDto;
+import ru.practicum.dto.booking.BookingResponseDto;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Проверка пересечений через индекс интервалов: ответ без БД, откат транзакции, переход вещи
+// на проверку в БД при пересечении в индексе и возврат в индекс после перечитывания
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-index;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingIntervalIndexTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+    private LocalDateTime start;
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    // бронь удалена из БД в обход индекса: отказ мог дать только индекс
+    @Test
+    void overlapIsDetectedThroughIndex() {
+        Item item = item("indexed");
+        BookingResponseDto first = create(item, start, start.plusHours(2));
+        bookingRepository.deleteById(first.getId());
+
+        assertThat(bookingIntervalIndex.canAnswer(item.getId())).isTrue();
+        assertThatThrownBy(() -> create(item, start.plusHours(1), start.plusHours(3)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    // интервал попадает в индекс только после фиксации: откат не оставляет в нем брони
+    @Test
+    void rolledBackBookingIsNotIndexed() {
+        Item item = item("rolled-back");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            create(item, start, start.plusHours(2));
+            status.setRollbackOnly();
+        });
+
+        assertThat(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusHours(2))).isFalse();
+        assertThat(create(item, start, start.plusHours(2)).getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void degradedItemFallsBackToDatabase() {
+        Item item = item("degraded");
+        BookingResponseDto first = create(item, start, start.plusHours(2));
+        Booking outside = saveOutsideIndex(item, start.plusHours(1), start.plusHours(3));
+
+        bookingIntervalIndex.onCreated(outside);
+        bookingRepository.deleteAllById(List.of(first.getId(), outside.getId()));
+
+        assertThat(bookingIntervalIndex.canAnswer(item.getId())).isFalse();
+        assertThat(create(item, start, start.plusHours(2)).getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void resyncReturnsConsistentItemToIndex() {
+        Item item = item("resynced");
+        BookingResponseDto first = create(item, start, start.plusHours(2));
+        bookingIntervalIndex.onCreated(saveOutsideIndex(item, start.plusHours(1), start.plusHours(3)));
+
+        bookingIntervalIndex.resyncDegraded();
+        assertThat(bookingIntervalIndex.canAnswer(item.getId())).as("пересечение осталось в БД").isFalse();
+
+        bookingService.bookingStatusUpdate(first.getId(), false, owner.getId());
+        bookingIntervalIndex.resyncDegraded();
+
+        assertThat(bookingIntervalIndex.canAnswer(item.getId())).isTrue();
+        assertThat(bookingIntervalIndex.hasOverlap(item.getId(), start.plusHours(2), start.plusHours(4))).isTrue();
+        assertThat(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusMinutes(30))).isFalse();
+    }
+
+    private BookingResponseDto create(Item item, LocalDateTime bookingStart, LocalDateTime bookingEnd) {
+        BookingDto booking = new BookingDto();
+        booking.setItemId(item.getId());
+        booking.setStart(bookingStart);
+        booking.setEnd(bookingEnd);
+        return bookingService.createBooking(booker.getId(), booking);
+    }
+
+    // бронь, записанная не через этот узел (другой узел, ручная правка)
+    private Booking saveOutsideIndex(Item item, LocalDateTime bookingStart, LocalDateTime bookingEnd) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(bookingStart);
+        booking.setEnd(bookingEnd);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setCreatedDate(LocalDateTime.now());
+        return bookingRepository.save(booking);
+    }
+
+    private Item item(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.server.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.dto.booking.BookingResponseDto;
+import ru.practicum.dto.booking.BookingState;
+import ru.practicum.dto.booking.BookingStatus;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Страница бронирований - один запрос при любом состоянии: вещь и арендатор загружаются вместе с бронями
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-pages;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingPageStatementsTest {
+
+    private static final int BOOKINGS_PER_STATE = 12;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+
+    // по 12 броней на каждое состояние (60 всего) на трех вещах владельца
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description" + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(itemRepository.save(item));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_PER_STATE; i++) {
+            Item item = items.get(i % items.size());
+            // завершенные, текущие, будущие подтвержденные, ожидающие и отклоненные
+            bookings.add(booking(item, now.minusDays(30 + i), now.minusDays(29 + i), BookingStatus.APPROVED));
+            bookings.add(booking(item, now.minusHours(i + 1), now.plusDays(i + 1), BookingStatus.APPROVED));
+            bookings.add(booking(item, now.plusDays(10 + i), now.plusDays(11 + i), BookingStatus.APPROVED));
+            bookings.add(booking(item, now.plusDays(40 + i), now.plusDays(41 + i), BookingStatus.WAITING));
+            bookings.add(booking(item, now.plusDays(70 + i), now.plusDays(71 + i), BookingStatus.REJECTED));
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void bookerPageIsOneStatement(BookingState state) {
+        assertOneStatement(() -> bookingService.getUserBookings(booker.getId(), state, 0, PAGE_SIZE, null, null));
+        assertOneStatement(() -> bookingService.getUserBookings(booker.getId(), state, PAGE_SIZE, PAGE_SIZE, null, null));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void ownerPageIsOneStatement(BookingState state) {
+        assertOneStatement(() -> bookingService.getOwnerBookings(owner.getId(), state, 0, PAGE_SIZE, null, null));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void keysetPageIsOneStatement(BookingState state) {
+        List<BookingResponseDto> first = bookingService.getUserBookings(booker.getId(), state, 0, 1, null, null);
+        BookingResponseDto last = first.get(first.size() - 1);
+        assertOneStatement(() -> bookingService.getUserBookings(booker.getId(), state, 0, PAGE_SIZE,
+                last.getStart(), last.getId()));
+    }
+
+    private void assertOneStatement(Supplier<List<BookingResponseDto>> page) {
+        // первый вызов заносит пользователя в реестр id: проверка существования больше не идет в БД
+        page.get();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingResponseDto> bookings = page.get();
+
+        assertThat(bookings).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        booking.setCreatedDate(LocalDateTime.now());
+        return booking;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.server.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Ретранслятор outbox с подписчиком, падающим на выбранных событиях: доставка по порядку id,
+// повтор упавшего первого события, удаление после max-attempts и удаление доставленных строк.
+// Плановый запуск отложен на час (ретранслятор вызывается из теста), пачки - по два события, чтобы доставка шла несколькими пачками
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-relay;DB_CLOSE_DELAY=-1",
+        "shareit.outbox.relay.enabled=true",
+        "shareit.outbox.relay.interval=PT1H",
+        "shareit.outbox.relay.batch-size=2",
+        "shareit.outbox.relay.max-attempts=3"
+})
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private RecordingSubscriber subscriber;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clear() {
+        outboxEventRepository.deleteAll();
+        subscriber.received.clear();
+        subscriber.failing.clear();
+    }
+
+    @Test
+    void eventsAreDeliveredInOrderAndDeleted() {
+        List<Long> ids = save(5);
+
+        outboxRelay.relay();
+
+        assertThat(subscriber.received).containsExactlyElementsOf(ids);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    // первое событие задерживает остальные, пока не будет доставлено или удалено
+    @Test
+    void failingHeadIsRetriedThenDropped() {
+        List<Long> ids = save(2);
+        Long head = ids.get(0);
+        Long next = ids.get(1);
+        subscriber.failing.add(head);
+        double droppedBefore = dropped();
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertThat(subscriber.received).containsExactly(head, head);
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getId, OutboxEvent::getAttempts)
+                .containsExactly(tuple(head, 2), tuple(next, 0));
+        assertThat(dropped()).isEqualTo(droppedBefore);
+
+        outboxRelay.relay();
+
+        assertThat(subscriber.received).containsExactly(head, head, head, next);
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(dropped()).isEqualTo(droppedBefore + 1);
+    }
+
+    // упавшее событие в середине: доставленные до него удаляются, оно и следующие ждут повтора
+    @Test
+    void deliveredPrefixIsDeletedBeforeFailure() {
+        List<Long> ids = save(3);
+        subscriber.failing.add(ids.get(1));
+
+        outboxRelay.relay();
+
+        assertThat(subscriber.received).containsExactly(ids.get(0), ids.get(1));
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getId)
+                .containsExactly(ids.get(1), ids.get(2));
+
+        subscriber.failing.clear();
+        outboxRelay.relay();
+
+        assertThat(subscriber.received).containsExactly(ids.get(0), ids.get(1), ids.get(1), ids.get(2));
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    private List<Long> save(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    OutboxEvent event = new OutboxEvent();
+                    event.setEventType(DomainEventType.ITEM_UPDATED);
+                    event.setAggregateType(DomainEventType.ITEM_UPDATED.getAggregateType());
+                    event.setAggregateId((long) i);
+                    event.setPayload("{}");
+                    event.setCreated(LocalDateTime.now());
+                    return outboxEventRepository.save(event).getId();
+                })
+                .toList();
+    }
+
+    private double dropped() {
+        return meterRegistry.get("shareit.outbox.dropped").counter().count();
+    }
+
+    @TestConfiguration
+    static class SubscriberConfig {
+
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    // запоминает каждую попытку доставки, на событиях из failing падает
+    static class RecordingSubscriber {
+
+        final List<Long> received = new CopyOnWriteArrayList<>();
+        final Set<Long> failing = new HashSet<>();
+
+        @EventListener
+        public void on(DomainEvent event) {
+            received.add(event.id());
+            if (failing.contains(event.id())) {
+                throw new IllegalStateException("Подписчик не обработал событие " + event.id());
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.server.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.dto.request.ItemRequestResponseDto;
+import ru.practicum.server.item.Item;
+import ru.practicum.server.item.ItemRepository;
+import ru.practicum.server.user.User;
+import ru.practicum.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Чужие запросы страницами: пагинация в БД по запросам, а не по строкам, размноженным вещами
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:request-pages;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemRequestPaginationTest {
+
+    private static final int OTHER_REQUESTS = 25;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User reader;
+    // чужие запросы от новых к старым (ожидаемый порядок выдачи)
+    private final List<ItemRequest> expected = new ArrayList<>();
+
+    // 25 чужих запросов, у каждого 0-3 вещи, и 5 собственных запросов читающего
+    @BeforeAll
+    void seed() {
+        reader = userRepository.save(user("reader"));
+        User requester = userRepository.save(user("requester"));
+        User owner = userRepository.save(user("owner"));
+
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < OTHER_REQUESTS; i++) {
+            ItemRequest request = itemRequestRepository.save(request(requester, "request" + i, created.plusMinutes(i)));
+            for (int j = 0; j < i % 4; j++) {
+                Item item = new Item();
+                item.setName("item" + i + "-" + j);
+                item.setDescription("description");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                item.setRequest(request);
+                itemRepository.save(item);
+            }
+            expected.add(0, request);
+        }
+        for (int i = 0; i < 5; i++) {
+            itemRequestRepository.save(request(reader, "own" + i, created.plusMinutes(i)));
+        }
+    }
+
+    @Test
+    void contextFailsOnPaginationOverCollectionFetch() {
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions()
+                .isFailOnPaginationOverCollectionFetchEnabled()).isTrue();
+    }
+
+    @Test
+    void pagesFollowCreationOrderWithItems() {
+        assertPage(0, 10);
+        assertPage(10, 10);
+        assertPage(20, 10);
+    }
+
+    @Test
+    void pageNotAlignedWithSize() {
+        assertPage(7, 6);
+    }
+
+    @Test
+    void pageAfterLastRequestIsEmpty() {
+        assertThat(itemRequestService.getAllRequests(reader.getId(), OTHER_REQUESTS, 10)).isEmpty();
+    }
+
+    private void assertPage(int from, int size) {
+        List<ItemRequest> expectedPage = expected.subList(from, Math.min(from + size, expected.size()));
+
+        List<ItemRequestResponseDto> page = itemRequestService.getAllRequests(reader.getId(), from, size);
+
+        assertThat(page).extracting(ItemRequestResponseDto::getId)
+                .containsExactlyElementsOf(expectedPage.stream().map(ItemRequest::getId).toList());
+        for (ItemRequestResponseDto request : page) {
+            List<String> itemNames = itemRepository.findByRequestId(request.getId()).stream()
+                    .map(Item::getName)
+                    .toList();
+            assertThat(request.getItems()).extracting(ItemRequestResponseDto.ItemDtoForRequest::getName)
+                    .containsExactlyInAnyOrderElementsOf(itemNames);
+        }
+    }
+
+    private static ItemRequest request(User requester, String description, LocalDateTime created) {
+        ItemRequest request = new ItemRequest();
+        request.setRequester(requester);
+        request.setDescription(description);
+        request.setCreated(created);
+        return request;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@shareit.ru");
+        return user;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.dto.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат одного элемента пакетного создания бронирований
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    // позиция бронирования во входном списке
+    private int index;
+    // HTTP-статус, который вернул бы одиночный запрос (201 - создано)
+    private int status;
+    private BookingResponseDto booking;
+    private String error;
+
+    public static BookingBatchResultDto created(int index, BookingResponseDto booking) {
+        return new BookingBatchResultDto(index, 201, booking, null);
+    }
+
+    public static BookingBatchResultDto failed(int index, int status, String error) {
+        return new BookingBatchResultDto(index, status, null, error);
+    }
+}
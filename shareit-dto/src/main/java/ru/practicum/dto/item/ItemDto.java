@@ -27,9 +27,12 @@ public class ItemDto {
     //запрос
     private Long requestId;
 
-    //комментарии
+    //последние комментарии, остальные - GET /items/{itemId}/comments
     private List<CommentDto> comments;
 
+    //общее число комментариев
+    private Long commentCount;
+
     // последнее бронирование
     private BookingDto lastBooking;
 